@@ -2,13 +2,12 @@ package GUI;
 import java.awt.Graphics;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.Timer;
-import java.util.TimerTask;
 import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
+import javax.swing.Timer;
 import Methods.Controller;
 import Methods.Percolation;
 import static Others.Constants.*;
@@ -17,6 +16,8 @@ import static Others.Constants.*;
  * Creates panel that outputs GUI to user. Panel contains a tabbed pane
  * holding one pane to show percolation image and a second pane to show statistics
  * of the percolations.
+ * Timed runs step on the Event Dispatch Thread (Swing timer), and "Run All" runs in the background
+ * through a SimulationService so the GUI never freezes.
  */
 @SuppressWarnings("serial")
 public class PercPanel extends JPanel implements ActionListener{
@@ -24,8 +25,9 @@ public class PercPanel extends JPanel implements ActionListener{
 	// Controller variable
 	private Controller controller;
 	
-	// Percolation variable
+	// Percolation variable and renderer that draws it
 	private Percolation perc;
+	private PercRenderer renderer;
 
 	// GUI control variables
 	private JButton runOnceButton;
@@ -38,6 +40,9 @@ public class PercPanel extends JPanel implements ActionListener{
 	private Timer timer;
 	private int pauseTime;
 	
+	// Runs "Run All" in the background
+	private SimulationService service;
+	
 	/** Initialize panel of panel holding percolation image
 	 * @param controller
 	 */
@@ -45,6 +50,7 @@ public class PercPanel extends JPanel implements ActionListener{
 	{
 		// Controller variable
 		this.controller = controller;
+		service = new SimulationService();
 		 
 		// Initialize all RUN buttons
 		runOnceButton = new JButton("Run Once");
@@ -81,7 +87,10 @@ public class PercPanel extends JPanel implements ActionListener{
 	public void setPerc(Percolation p)
 	{
 		perc = p;
-		add(perc);
+		if (renderer != null)
+			remove(renderer);
+		renderer = new PercRenderer(controller, perc);
+		add(renderer);
 		revalidate();
 	}
 	
@@ -90,7 +99,9 @@ public class PercPanel extends JPanel implements ActionListener{
 	{
 		// Iterate button to open single square
 		if(e.getSource() == runOnceButton)
-			perc.openRandom();
+			synchronized (perc) {
+				perc.openRandom();
+			}
 
 		// Run timed until percolation button
 		if (e.getSource() == runTimedButton)
@@ -110,8 +121,9 @@ public class PercPanel extends JPanel implements ActionListener{
 				runAllButton.setEnabled(false);
 				
 				// Set timer for iterations
-				timer = new Timer();
-				timer.schedule(new TimedIteration(), 0);
+				timer = new Timer(pauseTime, new TimedIteration());
+				timer.setInitialDelay(0);
+				timer.start();
 				
 			// What to do to stop timed
 			} else if (runTimedButton.getText().equals("Pause")) {
@@ -122,21 +134,31 @@ public class PercPanel extends JPanel implements ActionListener{
 				runAllButton.setEnabled(true);
 				
 				// Cancel current timer
-				timer.cancel();
+				timer.stop();
 			}
 		}
 		
-		// Run until completion
-		if (e.getSource() == runAllButton)	
-			while(!perc.percolates())
-				perc.openRandom();
+		// Run until completion in background, repainting as it goes
+		if (e.getSource() == runAllButton)
+		{
+			runOnceButton.setEnabled(false);
+			runTimedButton.setEnabled(false);
+			runAllButton.setEnabled(false);
+			service.runToPercolation(perc, open -> repaint(), () -> {
+				runOnceButton.setEnabled(true);
+				runTimedButton.setEnabled(true);
+				runAllButton.setEnabled(true);
+				repaint();
+			});
+		}
 			
 		// Reset Button click
 		if (e.getSource() == resetButton)
 		{
-			// Ends timers if already running
+			// Ends timers and background runs if already running
 			if (runTimedButton.getText().equals("Pause"))
 				runTimedButton.doClick();
+			service.cancel();
 			
 			// Try to reset percolation 
 			try {
@@ -156,19 +178,20 @@ public class PercPanel extends JPanel implements ActionListener{
 		repaint();
 	}
 	
-	/** Runs iteration on a timed basis
+	/** Runs iteration on a timed basis (on the Event Dispatch Thread)
 	 */
-	class TimedIteration extends TimerTask {
-		public void run() {
-			// Open random and schedule new timer
-			if (!perc.percolates())
-			{
-				perc.openRandom();
-				timer.schedule(new TimedIteration(), pauseTime);
+	class TimedIteration implements ActionListener {
+		public void actionPerformed(ActionEvent e) {
+			// Open random cell
+			boolean percolates;
+			synchronized (perc) {
+				if (!perc.percolates())
+					perc.openRandom();
+				percolates = perc.percolates();
 			}
 			
 			// Resets button if percolates
-			if (perc.percolates())
+			if (percolates && runTimedButton.getText().equals("Pause"))
 				runTimedButton.doClick();
 			repaint();
 		}
@@ -179,7 +202,7 @@ public class PercPanel extends JPanel implements ActionListener{
 	public void paint(Graphics g)
 	{
 		super.paint(g);
-		if (perc != null)
-			perc.paint(g);
+		if (renderer != null)
+			renderer.paint(g);
 	}
 }
\ No newline at end of file
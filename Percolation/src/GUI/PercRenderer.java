@@ -0,0 +1,219 @@
+package GUI;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import javax.swing.JComponent;
+import Methods.BitGrid;
+import Methods.Controller;
+import Methods.Percolation;
+import static Others.Constants.*;
+
+/**
+ * Draws a percolation grid on screen. Keeps all Swing code out of the Percolation model
+ * so the model can run on headless machines.
+ * Grid is drawn into a cached image, and each repaint only draws cells opened since the last one.
+ * When an opened cell joins a full cluster, only that cluster is recolored.
+ * Reads percolation while holding its lock, since background runs may be opening sites.
+ */
+@SuppressWarnings("serial")
+public class PercRenderer extends JComponent {
+
+	// Controller variable
+	private Controller controller;
+
+	// Percolation being drawn
+	private Percolation perc;
+
+	// Cached image of grid and cell layout it was drawn with
+	private BufferedImage image;
+	private int rect;
+	private int space;
+
+	// Number of opened sites already drawn, and which drawn cells are full
+	private int drawnOpen;
+	private BitGrid drawnFull;
+
+	// Site drawn red (last opened when system percolated), 0 if none
+	private int redSite;
+
+	// Stack for recoloring clusters that become full
+	private int[] stack;
+
+	/** Initialize renderer for percolation
+	 * @param controller Controller variable
+	 * @param perc Percolation to draw
+	 */
+	public PercRenderer(Controller controller, Percolation perc)
+	{
+		this.controller = controller;
+		this.perc = perc;
+	}
+
+	/** Returns percolation being drawn
+	 * @return Percolation
+	 */
+	public Percolation getPerc()
+	{
+		return perc;
+	}
+
+	// Paint component method
+	// White if open and not full, black if closed, blue if open and full, red if cell that percolates
+	public void paintComponent(Graphics g)
+	{
+		super.paintComponent(g);
+		int size = perc.getGridSize();
+
+		// Size of grid  and cells based on current frame size
+		double width = controller.getFrameSize().getWidth();
+		double height = controller.getFrameSize().getHeight();
+		double min = (width < height? width: height);
+		int newRect = (int) min / (size + gridWeight);
+
+		// Redraw everything only when there is no image yet or cell size changed
+		synchronized (perc) {
+			if (image == null || newRect != rect)
+			{
+				rect = newRect;
+				space = (rect / 4 > 1 ? rect / 4: 1);
+				drawAll(size);
+			} else {
+				drawChanges(size);
+			}
+		}
+
+		g.drawImage(image, 0, 0, null);
+	}
+
+	/** Draws every cell into a new image
+	 * @param size Size of grid
+	 */
+	private void drawAll(int size)
+	{
+		int pixels = Math.max(1, (size + 1) * rect + buttonSize);
+		image = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_ARGB);
+		drawnFull = new BitGrid(size);
+		redSite = 0;
+
+		Graphics2D g = image.createGraphics();
+		for (int i=1; i<=size; i++)
+		{
+			for (int j=1; j<=size; j++)
+			{
+				int site = (i - 1) * size + j;
+				boolean open = perc.isOpen(i, j);
+				if (open && perc.isFull(i, j))
+					drawnFull.set(site - 1);
+				fillCell(g, site, size, (open ? (drawnFull.get(site - 1) ? Color.BLUE: Color.WHITE): Color.BLACK));
+			}
+		}
+		drawnOpen = perc.numberOfOpenSites();
+		drawRed(g, size);
+		g.dispose();
+	}
+
+	/** Draws only cells opened since last paint, and clusters they made full
+	 * @param size Size of grid
+	 */
+	private void drawChanges(int size)
+	{
+		int numOpen = perc.numberOfOpenSites();
+		if (numOpen == drawnOpen && redTarget(size) == redSite)
+			return;
+
+		Graphics2D g = image.createGraphics();
+		for (; drawnOpen<numOpen; drawnOpen++)
+		{
+			int site = perc.getOpenedSite(drawnOpen);
+			if (drawnFull.get(site - 1))
+				continue;
+			if (perc.isFull((site - 1) / size + 1, (site - 1) % size + 1))
+				fillCluster(g, site, size);
+			else
+				fillCell(g, site, size, Color.WHITE);
+		}
+		drawRed(g, size);
+		g.dispose();
+	}
+
+	/** Colors full cluster containing site blue, stopping at cells already drawn full
+	 * @param g Image graphics
+	 * @param site Site index of newly full cell
+	 * @param size Size of grid
+	 */
+	private void fillCluster(Graphics2D g, int site, int size)
+	{
+		if (stack == null)
+			stack = new int[size * size];
+
+		int top = 0;
+		stack[top++] = site;
+		drawnFull.set(site - 1);
+		while (top > 0)
+		{
+			int s = stack[--top];
+			fillCell(g, s, size, Color.BLUE);
+
+			// Push open neighbors not yet drawn full
+			int i = (s - 1) / size + 1;
+			int j = (s - 1) % size + 1;
+			if (i > 1)
+				top = push(s - size, i - 1, j, top);
+			if (i < size)
+				top = push(s + size, i + 1, j, top);
+			if (j > 1)
+				top = push(s - 1, i, j - 1, top);
+			if (j < size)
+				top = push(s + 1, i, j + 1, top);
+		}
+	}
+
+	// Pushes site onto stack if open and not drawn full yet
+	private int push(int site, int i, int j, int top)
+	{
+		if (!drawnFull.get(site - 1) && perc.isOpen(i, j))
+		{
+			drawnFull.set(site - 1);
+			stack[top++] = site;
+		}
+		return top;
+	}
+
+	/** Moves red marker to last opened cell once system percolates
+	 * @param g Image graphics
+	 * @param size Size of grid
+	 */
+	private void drawRed(Graphics2D g, int size)
+	{
+		int site = redTarget(size);
+
+		// Restore old red cell to its normal color
+		if (redSite != 0 && redSite != site)
+			fillCell(g, redSite, size, (drawnFull.get(redSite - 1) ? Color.BLUE: Color.WHITE));
+		if (site != 0)
+			fillCell(g, site, size, Color.RED);
+		redSite = site;
+	}
+
+	// Site that should be drawn red, 0 if none
+	private int redTarget(int size)
+	{
+		int[] last = perc.getLastOpened();
+		return (perc.percolates() && last[0] > 0 ? (last[0] - 1) * size + last[1]: 0);
+	}
+
+	/** Draws single cell
+	 * @param g Image graphics
+	 * @param site Site index of cell
+	 * @param size Size of grid
+	 * @param c Color of cell
+	 */
+	private void fillCell(Graphics2D g, int site, int size, Color c)
+	{
+		int i = (site - 1) / size + 1;
+		int j = (site - 1) % size + 1;
+		g.setColor(c);
+		g.fillRect(j * rect + buttonSize, i * rect + buttonSize, rect - space, rect - space);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package GUI;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import javax.swing.SwingWorker;
+import Methods.Percolation;
+import Methods.PercolationStats;
+import Methods.RunningStats;
+
+/**
+ * Runs long simulations off the Event Dispatch Thread so the GUI stays responsive.
+ * Runs one job at a time. All callbacks are called on the Event Dispatch Thread.
+ * Background jobs only touch a Percolation while holding its lock, and views must do the
+ * same when reading it (see PercRenderer).
+ */
+public class SimulationService {
+
+	// Job currently running, null if none
+	private SwingWorker<?, ?> job;
+
+	/** Opens random sites of perc in batches until it percolates
+	 * @param perc Percolation to run, shared with views
+	 * @param progress Receives number of open sites after each batch
+	 * @param done Called when run finishes or is cancelled
+	 */
+	public void runToPercolation(Percolation perc, IntConsumer progress, Runnable done)
+	{
+		cancel();
+		job = new SwingWorker<Integer, Integer>() {
+
+			@Override
+			protected Integer doInBackground()
+			{
+				// Batch size so a run reports about 100 times
+				int size = perc.getGridSize();
+				int batch = Math.max(1, size * size / 100);
+				while (!isCancelled())
+				{
+					int open;
+					synchronized (perc) {
+						if (perc.percolates())
+							return perc.numberOfOpenSites();
+						for (int k=0; k<batch && !perc.percolates(); k++)
+							perc.openRandom();
+						open = perc.numberOfOpenSites();
+					}
+					publish(open);
+				}
+				return -1;
+			}
+
+			@Override
+			protected void process(List<Integer> chunks)
+			{
+				progress.accept(chunks.get(chunks.size() - 1));
+			}
+
+			@Override
+			protected void done()
+			{
+				done.run();
+			}
+		};
+		job.execute();
+	}
+
+	/** Runs percolation statistics on all cores, reporting statistics so far as trials finish
+	 * @param n Size of n x n percolation grid
+	 * @param trials Number of trials to perform
+	 * @param progress Receives statistics of trials finished so far
+	 * @param done Receives final statistics
+	 * @param failed Receives error if run fails (not called when cancelled)
+	 */
+	public void runStats(int n, int trials, Consumer<RunningStats> progress, Consumer<RunningStats> done, Consumer<Throwable> failed)
+	{
+		runStats(n, trials, 0, progress, done, failed);
+	}
+
+	/** Runs percolation statistics on all cores until confidence interval is narrow enough, reporting statistics so far as trials finish
+	 * @param n Size of n x n percolation grid
+	 * @param trials Number of trials to perform, or most trials if halfWidth is given
+	 * @param halfWidth Target half width of 95% confidence interval (0 to run all trials)
+	 * @param progress Receives statistics of trials finished so far
+	 * @param done Receives final statistics
+	 * @param failed Receives error if run fails (not called when cancelled)
+	 */
+	public void runStats(int n, int trials, double halfWidth, Consumer<RunningStats> progress, Consumer<RunningStats> done, Consumer<Throwable> failed)
+	{
+		cancel();
+		job = new SwingWorker<RunningStats, RunningStats>() {
+
+			@Override
+			protected RunningStats doInBackground()
+			{
+				int workers = Runtime.getRuntime().availableProcessors();
+				ExecutorService executor = Executors.newFixedThreadPool(workers);
+				try {
+					if (halfWidth > 0)
+						return new PercolationStats(n, trials, halfWidth, 0, 0, System.nanoTime(), executor, workers, this::publish).getStats();
+					return new PercolationStats(n, trials, System.nanoTime(), executor, workers, this::publish).getStats();
+				} finally {
+					executor.shutdownNow();
+				}
+			}
+
+			@Override
+			protected void process(List<RunningStats> chunks)
+			{
+				if (!isCancelled())
+					progress.accept(chunks.get(chunks.size() - 1));
+			}
+
+			@Override
+			protected void done()
+			{
+				try {
+					done.accept(get());
+				} catch (CancellationException error) {
+					// Cancelled by user
+				} catch (InterruptedException error) {
+					Thread.currentThread().interrupt();
+				} catch (ExecutionException error) {
+					failed.accept(error.getCause());
+				}
+			}
+		};
+		job.execute();
+	}
+
+	/** Checks if a job is running
+	 * @return boolean
+	 */
+	public boolean isRunning()
+	{
+		return job != null && !job.isDone();
+	}
+
+	/** Cancels running job, if any
+	 */
+	public void cancel()
+	{
+		if (job != null)
+			job.cancel(true);
+		job = null;
+	}
+}
\ No newline at end of file
@@ -6,7 +6,7 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
 import Methods.Controller;
-import Methods.PercolationStats;
+import Methods.RunningStats;
 import java.awt.Component;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
@@ -17,7 +17,9 @@ import static Others.Constants.*;
 /** 
  * Stats panel that holds various statistic values for percolation thresholds (how many until percolation).
  * Allows for user to input size of percolation grid (n) and number of trials (trial).
+ * If a target confidence half width is given, trials stop as soon as it is met (number of trials is then the most to run).
  * Outputs the mean, standard deviation, and 95% confidence interval given inputs. 
+ * Statistics are calculated in the background and updated as trials finish.
  */
 @SuppressWarnings("serial")
 public class StatsPanel extends JPanel implements ActionListener{
@@ -28,10 +30,15 @@ public class StatsPanel extends JPanel implements ActionListener{
 	// JCompmonent variables
 	private JTextField trialsField;
 	private JTextField sizeField;
+	private JTextField targetField;
 	private JButton runButton;
 	
+	// Runs statistics in the background
+	private SimulationService service;
+	
 	// Statistic variables
-	private PercolationStats percStats;
+	private int numTrials;
+	private JLabel trialsDone;
 	private JLabel mean;
 	private JLabel std;
 	private JLabel confidence;
@@ -45,6 +52,7 @@ public class StatsPanel extends JPanel implements ActionListener{
 	{
 		// Sets controller
 		this.controller = controller;
+		service = new SimulationService();
 		
 		// Number of trials label and text field
 		trialsField = new JTextField(initialNumTrials + "");
@@ -62,11 +70,20 @@ public class StatsPanel extends JPanel implements ActionListener{
 		sizePanel.add(sizeLabel);
 		sizePanel.add(sizeField);
 		
+		// Target half width label and text field
+		targetField = new JTextField("0");
+		targetField.setPreferredSize(textFieldSize);
+		JLabel targetLabel = new JLabel("Target half width (0 = all):  ");
+		JPanel targetPanel = new JPanel();
+		targetPanel.add(targetLabel);
+		targetPanel.add(targetField);
+		
 		// Run button initialization
 		runButton = new JButton("Run");
 		runButton.addActionListener(this);
 		
 		// Panel of stats
+		trialsDone = new JLabel("Trials run: ");
 		mean = new JLabel("Mean: ");
 		std = new JLabel("Standard Deviation: ");
 		confidence = new JLabel("95% Confidence Level");
@@ -76,6 +93,7 @@ public class StatsPanel extends JPanel implements ActionListener{
 		// Adds all to separate panel
 		JPanel allStatsPanel = new JPanel();
 		allStatsPanel.setLayout(new BoxLayout(allStatsPanel, BoxLayout.Y_AXIS));
+		allStatsPanel.add(trialsDone);
 		allStatsPanel.add(mean);
 		allStatsPanel.add(std);
 		allStatsPanel.add(new JLabel(" "));
@@ -84,6 +102,7 @@ public class StatsPanel extends JPanel implements ActionListener{
 		allStatsPanel.add(high);
 		
 		// Sets orientation on panel of stats
+		trialsDone.setAlignmentX(Component.CENTER_ALIGNMENT);
 		mean.setAlignmentX(Component.CENTER_ALIGNMENT);
 		std.setAlignmentX(Component.CENTER_ALIGNMENT);
 		confidence.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -106,13 +125,17 @@ public class StatsPanel extends JPanel implements ActionListener{
 		c.gridy = 1;
 		add(sizePanel, c);
 		
-		// Adds run button
+		// Adds target panel
 		c.gridy = 2;
+		add(targetPanel, c);
+		
+		// Adds run button
+		c.gridy = 3;
 		c.weighty = 0.5;
 		add(runButton, c);
 		
 		// Adds stats panel
-		c.gridy = 3;
+		c.gridy = 4;
 		c.weighty = 1;
 		add(allStatsPanel, c);
 		
@@ -120,21 +143,54 @@ public class StatsPanel extends JPanel implements ActionListener{
 		revalidate();
 	}
 	
-	/** Calculates mean, standard deviation, and 95% confidence interval given inputs
+	/** Starts calculating mean, standard deviation, and 95% confidence interval given inputs.
+	 * Labels are updated as trials finish.
 	 * @param gridSize Size of percolation grid to be iterated
 	 * @param numTrials Number of times grid is iterated over
 	 */
 	public void calculateStats(int gridSize, int numTrials)
 	{
-		// Calculate stats
-		percStats = new PercolationStats(controller, gridSize, numTrials);
+		calculateStats(gridSize, numTrials, 0);
+	}
+	
+	/** Starts calculating mean, standard deviation, and 95% confidence interval given inputs,
+	 * stopping early once the confidence interval half width reaches target.
+	 * Labels are updated as trials finish.
+	 * @param gridSize Size of percolation grid to be iterated
+	 * @param numTrials Most times grid is iterated over
+	 * @param halfWidth Target half width of confidence interval (0 to run all trials)
+	 */
+	public void calculateStats(int gridSize, int numTrials, double halfWidth)
+	{
+		// Exception catch
+		if (gridSize <= 0 || numTrials <= 0 || !(halfWidth >= 0))
+			throw new IllegalArgumentException("Invalid value for grid size, trials or target.");
 		
+		// Calculate stats in background
+		this.numTrials = numTrials;
+		runButton.setText("Cancel");
+		service.runStats(gridSize, numTrials, halfWidth, this::showStats, stats -> {
+			showStats(stats);
+			runButton.setText("Run");
+		}, error -> {
+			runButton.setText("Run");
+			String message = "Statistics failed: " + error.getMessage();
+			JOptionPane.showMessageDialog(null, message, "Error", JOptionPane.INFORMATION_MESSAGE);
+		});
+	}
+	
+	/** Shows statistics of trials finished so far
+	 * @param stats Statistics of finished trials
+	 */
+	private void showStats(RunningStats stats)
+	{
 		// Change labels with specified decimal format
-		mean.setText("Mean:   " + df.format(percStats.mean()));
-		std.setText("Standard Deviation:   " + df.format(percStats.stddev()));
+		trialsDone.setText("Trials run:   " + stats.count() + " / " + numTrials);
+		mean.setText("Mean:   " + df.format(stats.mean()));
+		std.setText("Standard Deviation:   " + df.format(stats.stddev()));
 		confidence.setText("95% Confidence Level");
-		low.setText("Low bound:   " + df.format(percStats.confidenceLo()));
-		high.setText("High bound:   " + df.format(percStats.confidenceHi()));
+		low.setText("Low bound:   " + df.format(stats.confidenceLo()));
+		high.setText("High bound:   " + df.format(stats.confidenceHi()));
 		
 		// Refresh screen
 		repaint();
@@ -144,15 +200,24 @@ public class StatsPanel extends JPanel implements ActionListener{
 	@Override
 	public void actionPerformed(ActionEvent e) 
 	{
+		// Cancel button pressed while running
+		if (service.isRunning())
+		{
+			service.cancel();
+			runButton.setText("Run");
+			return;
+		}
+		
 		// When run button is pressed
 		try {
 			int gridSize = Integer.parseInt(sizeField.getText());
 			int numTrials = Integer.parseInt(trialsField.getText());
-			calculateStats(gridSize, numTrials);
+			double halfWidth = Double.parseDouble(targetField.getText());
+			calculateStats(gridSize, numTrials, halfWidth);
 			
 		// What happens if fail
 		} catch (Exception error) {
-			String message = "Size of grid and number of trials must be positive integer.";
+			String message = "Size of grid and number of trials must be positive integer, target half width not negative.";
 			String header = "Input error";
 			JOptionPane.showMessageDialog(null, message, header, JOptionPane.INFORMATION_MESSAGE);
 		}	
@@ -0,0 +1,224 @@
+package Methods;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Command line front end to PercolationStats for headless batch machines.
+ * Writes one line per trial (or one summary line) as CSV or JSON lines.
+ * Trials are numbered, and trial k always gives the same result for the same seed, so a study can be
+ * split across machines with --trial-offset and --trial-count and the outputs concatenated afterward.
+ *
+ * Example: java -cp percolation.jar Methods.BatchRunner --n 512 --trials 1000 --seed 42 --format json
+ */
+public class BatchRunner {
+
+	// Usage message
+	private static final String usage = String.join(System.lineSeparator(),
+			"Usage: java -cp percolation.jar Methods.BatchRunner [options]",
+			"  --n <int>             size of n x n grid (required)",
+			"  --trials <int>        number of trials, same as --trial-count (required)",
+			"  --trial-offset <long> number of first trial (default 0)",
+			"  --seed <long>         seed of study (default random, written to output)",
+			"  --threads <int>       number of worker threads (default all processors)",
+			"  --format csv|json     output format, JSON is one object per line (default csv)",
+			"  --summary             write one summary line instead of one line per trial",
+			"  --output <file>       output file (default standard output)",
+			"  --help                show this message");
+
+	// Option names (--trial-count is read as --trials)
+	private static final Set<String> names = Set.of("n", "trials", "trial-count", "trial-offset", "seed", "threads",
+			"format", "summary", "output", "help");
+
+	/**
+	 * Runs batch from command line arguments
+	 * @param args Command line arguments
+	 */
+	public static void main(String[] args)
+	{
+		try {
+			run(parse(args));
+		} catch (IllegalArgumentException error) {
+			System.err.println("Error: " + error.getMessage());
+			System.err.println(usage);
+			System.exit(2);
+		} catch (IOException error) {
+			System.err.println("Error: " + error.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/** Parses "--key value", "--key=value" and "--flag" arguments, rejecting unknown options
+	 * @param args Command line arguments
+	 * @return Map of option name to value
+	 */
+	static Map<String, String> parse(String[] args)
+	{
+		Map<String, String> options = new HashMap<>();
+		for (int k=0; k<args.length; k++)
+		{
+			String arg = args[k];
+			if (!arg.startsWith("--"))
+				throw new IllegalArgumentException("Unexpected argument (" + arg + ").");
+
+			// Split key and value
+			int eq = arg.indexOf('=');
+			String key = (eq < 0 ? arg.substring(2): arg.substring(2, eq));
+			if (!names.contains(key))
+				throw new IllegalArgumentException("Unknown option --" + key + ".");
+			String value;
+			if (eq >= 0)
+				value = arg.substring(eq + 1);
+			else if (key.equals("summary") || key.equals("help"))
+				value = "true";
+			else if (k + 1 < args.length)
+				value = args[++k];
+			else
+				throw new IllegalArgumentException("Missing value for --" + key + ".");
+			options.put(key.equals("trial-count") ? "trials": key, value);
+		}
+		return options;
+	}
+
+	/** Runs trials and writes results
+	 * @param options Parsed options
+	 * @throws IOException If output cannot be written
+	 */
+	static void run(Map<String, String> options) throws IOException
+	{
+		if (options.containsKey("help"))
+		{
+			System.out.println(usage);
+			return;
+		}
+
+		// Read options
+		int n = intOption(options, "n", -1);
+		int trials = intOption(options, "trials", -1);
+		long offset = longOption(options, "trial-offset", 0);
+		long seed = longOption(options, "seed", System.nanoTime());
+		int threads = intOption(options, "threads", Runtime.getRuntime().availableProcessors());
+		String format = options.getOrDefault("format", "csv");
+		boolean summary = booleanOption(options, "summary");
+		if (n <= 0 || trials <= 0 || threads <= 0 || offset < 0)
+			throw new IllegalArgumentException("--n, --trials and --threads must be positive, --trial-offset not negative.");
+		if (!format.equals("csv") && !format.equals("json"))
+			throw new IllegalArgumentException("Invalid format (" + format + ").");
+		boolean json = format.equals("json");
+
+		// Run trials, keeping open site counts so lines are written in trial order
+		int[] openSites = new int[trials];
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		PercolationStats stats;
+		try {
+			stats = new PercolationStats(n, offset, trials, seed, executor, threads,
+					(trial, open, threshold) -> openSites[(int) (trial - offset)] = open);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// Write results
+		String file = options.get("output");
+		OutputStream stream = (file == null ? System.out: new FileOutputStream(file));
+		PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8)));
+		try {
+			if (summary)
+				writeSummary(out, json, n, offset, trials, seed, stats.getStats());
+			else
+				writeTrials(out, json, n, offset, seed, openSites);
+		} finally {
+			if (file == null)
+				out.flush();
+			else
+				out.close();
+		}
+		if (out.checkError())
+			throw new IOException("Could not write output.");
+	}
+
+	/** Writes one line per trial
+	 * @param out Output
+	 * @param json JSON lines if true, CSV if false
+	 * @param n Size of grid
+	 * @param offset Number of first trial
+	 * @param seed Seed of study
+	 * @param openSites Open sites at percolation of each trial
+	 */
+	private static void writeTrials(PrintWriter out, boolean json, int n, long offset, long seed, int[] openSites)
+	{
+		double sites = (double) n * n;
+		if (!json)
+			out.println("trial,n,seed,open_sites,threshold");
+		for (int k=0; k<openSites.length; k++)
+		{
+			if (json)
+				out.printf(Locale.ROOT, "{\"trial\":%d,\"n\":%d,\"seed\":%d,\"open_sites\":%d,\"threshold\":%s}%n",
+						offset + k, n, seed, openSites[k], Double.toString(openSites[k] / sites));
+			else
+				out.printf(Locale.ROOT, "%d,%d,%d,%d,%s%n", offset + k, n, seed, openSites[k], Double.toString(openSites[k] / sites));
+		}
+	}
+
+	/** Writes one summary line
+	 * @param out Output
+	 * @param json JSON lines if true, CSV if false
+	 * @param n Size of grid
+	 * @param offset Number of first trial
+	 * @param trials Number of trials
+	 * @param seed Seed of study
+	 * @param stats Statistics of thresholds
+	 */
+	private static void writeSummary(PrintWriter out, boolean json, int n, long offset, int trials, long seed, RunningStats stats)
+	{
+		if (json)
+			out.printf(Locale.ROOT, "{\"n\":%d,\"seed\":%d,\"trial_offset\":%d,\"trials\":%d,\"mean\":%s,\"stddev\":%s,\"confidence_lo\":%s,\"confidence_hi\":%s}%n",
+					n, seed, offset, trials, Double.toString(stats.mean()), Double.toString(stats.stddev()),
+					Double.toString(stats.confidenceLo()), Double.toString(stats.confidenceHi()));
+		else {
+			out.println("n,seed,trial_offset,trials,mean,stddev,confidence_lo,confidence_hi");
+			out.printf(Locale.ROOT, "%d,%d,%d,%d,%s,%s,%s,%s%n", n, seed, offset, trials, Double.toString(stats.mean()),
+					Double.toString(stats.stddev()), Double.toString(stats.confidenceLo()), Double.toString(stats.confidenceHi()));
+		}
+	}
+
+	// Reads true/false option, false if missing
+	private static boolean booleanOption(Map<String, String> options, String key)
+	{
+		String value = options.getOrDefault(key, "false");
+		if (!value.equals("true") && !value.equals("false"))
+			throw new IllegalArgumentException("Invalid value for --" + key + " (" + value + ").");
+		return value.equals("true");
+	}
+
+	// Reads int option, using default if missing
+	private static int intOption(Map<String, String> options, String key, int fallback)
+	{
+		long value = longOption(options, key, fallback);
+		if (value != (int) value)
+			throw new IllegalArgumentException("Invalid value for --" + key + " (" + value + ").");
+		return (int) value;
+	}
+
+	// Reads long option, using default if missing
+	private static long longOption(Map<String, String> options, String key, long fallback)
+	{
+		String value = options.get(key);
+		if (value == null)
+			return fallback;
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException error) {
+			throw new IllegalArgumentException("Invalid value for --" + key + " (" + value + ").");
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,188 @@
+package Methods;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Creates n x n (or rows x columns) grid of bits packed 64 to a long (one bit per site).
+ * Sites are numbered row by row from 0 to n*n-1, with long indexing so grids past 46340 x 46340 fit.
+ */
+public class BitGrid {
+
+	// Packed bits, site k in bit (k % 64) of word (k / 64)
+	private long[] words;
+
+	// Size (n x n) of grid, and number of columns if not square
+	private int size;
+	private int columns;
+
+	/**
+	 * Creates n x n grid with all bits cleared
+	 * @param n Size of grid (n x n)
+	 */
+	public BitGrid(int n)
+	{
+		this(n, n);
+	}
+
+	/**
+	 * Creates rows x columns grid with all bits cleared
+	 * @param rows Number of rows
+	 * @param columns Number of columns
+	 */
+	public BitGrid(int rows, int columns)
+	{
+		// Exception catch
+		if (rows <= 0)
+			throw new IllegalArgumentException("Invalid value for n.");
+		if (columns <= 0)
+			throw new IllegalArgumentException("Invalid value for columns.");
+
+		size = rows;
+		this.columns = columns;
+		long sites = (long) rows * columns;
+		if ((sites + 63) >>> 6 > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Grid too large for bit grid (" + rows + " x " + columns + ").");
+		words = new long[(int) ((sites + 63) >>> 6)];
+	}
+
+	/** Creates n x n grid with each bit set independently with probability p
+	 * @param n Size of grid (n x n)
+	 * @param p Probability of each bit being set
+	 * @param rand Random number generator
+	 * @return BitGrid
+	 */
+	public static BitGrid random(int n, double p, RandomGenerator rand)
+	{
+		// Exception catch
+		if (!(p >= 0 && p <= 1))
+			throw new IllegalArgumentException("Invalid value for p (" + p + ").");
+
+		BitGrid grid = new BitGrid(n);
+		long sites = (long) n * n;
+		for (long k=0; k<sites; k++)
+			if (rand.nextDouble() < p)
+				grid.set(k);
+		return grid;
+	}
+
+	/** Returns bit of site k
+	 * @param k Site index (0 to n*n-1)
+	 * @return boolean
+	 */
+	public boolean get(long k)
+	{
+		return (words[(int) (k >>> 6)] & (1L << k)) != 0;
+	}
+
+	/** Returns bit of site (row, col)
+	 * @param row Row (0 to n-1)
+	 * @param col Column (0 to n-1)
+	 * @return boolean
+	 */
+	public boolean get(int row, int col)
+	{
+		return get((long) row * columns + col);
+	}
+
+	/** Sets bit of site k
+	 * @param k Site index (0 to n*n-1)
+	 */
+	public void set(long k)
+	{
+		words[(int) (k >>> 6)] |= 1L << k;
+	}
+
+	/** Clears bit of site k
+	 * @param k Site index (0 to n*n-1)
+	 */
+	public void clear(long k)
+	{
+		words[(int) (k >>> 6)] &= ~(1L << k);
+	}
+
+	/** Clears all bits
+	 */
+	public void clear()
+	{
+		Arrays.fill(words, 0);
+	}
+
+	/** Returns number of set bits, counting a word at a time
+	 * @return long
+	 */
+	public long cardinality()
+	{
+		long count = 0;
+		for (long w:words)
+			count += Long.bitCount(w);
+		return count;
+	}
+
+	/** Returns index of first set bit at or after k, skipping empty words, or -1 if none
+	 * @param k Site index to start from
+	 * @return long
+	 */
+	public long nextSetBit(long k)
+	{
+		long sites = (long) size * columns;
+		if (k < 0)
+			k = 0;
+		if (k >= sites)
+			return -1;
+
+		int w = (int) (k >>> 6);
+		long word = words[w] & (-1L << k);
+		while (word == 0)
+		{
+			if (++w == words.length)
+				return -1;
+			word = words[w];
+		}
+		long found = ((long) w << 6) + Long.numberOfTrailingZeros(word);
+		return (found < sites ? found: -1);
+	}
+
+	/** Returns size (n) of n x n grid, or number of rows if not square
+	 * @return int
+	 */
+	public int getGridSize()
+	{
+		return size;
+	}
+
+	/** Returns number of columns (n of n x n grid)
+	 * @return int
+	 */
+	public int getColumns()
+	{
+		return columns;
+	}
+
+	/** Returns copy of grid
+	 * @return BitGrid
+	 */
+	public BitGrid copy()
+	{
+		return copyRows(size);
+	}
+
+	/** Returns copy of first rows of grid
+	 * @param rows Number of rows to copy (1 to number of rows)
+	 * @return BitGrid
+	 */
+	public BitGrid copyRows(int rows)
+	{
+		// Exception catch
+		if (rows <= 0 || rows > size)
+			throw new IllegalArgumentException("Invalid value for rows.");
+
+		BitGrid grid = new BitGrid(rows, columns);
+		System.arraycopy(words, 0, grid.words, 0, grid.words.length);
+
+		// Clear bits past last copied row in last word
+		long sites = (long) rows * columns;
+		if ((sites & 63) != 0)
+			grid.words[grid.words.length - 1] &= (1L << sites) - 1;
+		return grid;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,349 @@
+package Methods;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Creates bond percolation object on a lattice (n x n square by default), where every site is present
+ * and the bonds between neighboring sites open at random. System percolates when open bonds join
+ * the first row to the last row.
+ * Each bond is counted once, from the end with the smaller site index (positive neighbor offset), by the first
+ * neighbor number that reaches the other end (a periodic row of two sites reaches its neighbor both ways).
+ * Bond d of site k (to neighbor d in the Lattice) is named by key (k - 1) * degree + d in the closed list,
+ * and numbered densely from 0 to numberOfBonds() - 1 in site order for its open bit and list position,
+ * so bond state takes one bit and one int per bond. Since sites of a boundary class have the same bonds,
+ * the dense number is found from small per-row, per-row-class and per-class tables.
+ */
+public class BondPercolation {
+
+	// Union find of sites (virtual top 0 joined to first row, virtual bottom rows*columns+1 joined to last row)
+	private UnionFind qu;
+	private int bottom;
+
+	// Lattice, and its neighbor offsets (neighbor d of (i, j) is offsets[rowBase[i] + colBase[j] + d] away)
+	private Lattice lattice;
+	private int rows;
+	private int columns;
+	private int degree;
+	private int[] rowBase;
+	private int[] colBase;
+	private int[] offsets;
+
+	// Dense number of bond d of site (i, j) is rowFirst[i] + colFirst[rowBase[i]][j] + rank[rowBase[i] + colBase[j] + d],
+	// rank being -1 for neighbors that do not own the bond (smaller end, first neighbor number with that offset)
+	private int[] rowFirst;
+	private int[][] colFirst;
+	private int[] rank;
+
+	// Bit per dense bond number to keep track of open bonds, and number of bonds in lattice
+	private BitGrid bondOpen;
+	private int numBonds;
+
+	// Closed bond keys packed at front of list, with position of each bond (by dense number) in list (swap-remove sampling)
+	private int[] closedBonds;
+	private int[] closedPos;
+	private int numClosed;
+
+	// Random number generator used by openRandom()
+	private RandomGenerator rand;
+
+	/**
+	 * Create n-by-n square lattice, with all bonds initially closed
+	 * @param n Size of grid (n x n)
+	 */
+	public BondPercolation(int n)
+	{
+		this(Lattice.square(n), new SplittableRandom());
+	}
+
+	/**
+	 * Create n-by-n square lattice, with all bonds initially closed
+	 * @param n Size of grid (n x n)
+	 * @param rand Random number generator used by openRandom()
+	 */
+	public BondPercolation(int n, RandomGenerator rand)
+	{
+		this(Lattice.square(n), rand);
+	}
+
+	/**
+	 * Create lattice, with all bonds initially closed
+	 * @param lattice Lattice of sites
+	 * @param rand Random number generator used by openRandom()
+	 */
+	public BondPercolation(Lattice lattice, RandomGenerator rand)
+	{
+		this(lattice, rand, QuickUnion::new);
+	}
+
+	/**
+	 * Create lattice, with all bonds initially closed, joining sites with chosen union find
+	 * @param lattice Lattice of sites
+	 * @param rand Random number generator used by openRandom()
+	 * @param unionFind Creates union find of given number of nodes, e.g. QuickUnion::new
+	 */
+	public BondPercolation(Lattice lattice, RandomGenerator rand, IntFunction<UnionFind> unionFind)
+	{
+		this.lattice = lattice;
+		rows = lattice.getRows();
+		columns = lattice.getColumns();
+		degree = lattice.getDegree();
+		rowBase = lattice.rowBase;
+		colBase = lattice.colBase;
+		offsets = lattice.offsets;
+		int sites = lattice.getSites();
+		if ((long) sites * degree > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Lattice too large for bond percolation (" + lattice + ").");
+
+		// Bonds owned by each class (positive offsets, each once), then bonds before each column and row
+		rank = new int[offsets.length];
+		for (int start=0; start<offsets.length; start+=degree)
+			for (int d=0, owned=0; d<degree; d++)
+			{
+				boolean owner = offsets[start + d] > 0;
+				for (int e=0; e<d && owner; e++)
+					owner = offsets[start + e] != offsets[start + d];
+				rank[start + d] = (owner ? owned++: -1);
+			}
+		colFirst = new int[offsets.length][];
+		rowFirst = new int[rows + 2];
+		for (int i=1; i<=rows; i++)
+		{
+			if (colFirst[rowBase[i]] == null)
+			{
+				int[] first = new int[columns + 2];
+				for (int j=1; j<=columns; j++)
+					first[j + 1] = first[j] + owned(rowBase[i] + colBase[j]);
+				colFirst[rowBase[i]] = first;
+			}
+			long next = (long) rowFirst[i] + colFirst[rowBase[i]][columns + 1];
+			if (next > Integer.MAX_VALUE - 8)
+				throw new IllegalArgumentException("Lattice too large for bond percolation (" + lattice + ").");
+			rowFirst[i + 1] = (int) next;
+		}
+
+		// Every bond starts closed
+		bottom = sites + 1;
+		qu = unionFind.apply(sites + 2);
+		numBonds = rowFirst[rows + 1];
+		bondOpen = new BitGrid(1, Math.max(1, numBonds));
+		closedBonds = new int[numBonds];
+		closedPos = new int[numBonds];
+		reset();
+		this.rand = rand;
+
+		// Union find (two ints per node), bond bits, closed list and positions
+		if (Metrics.ENABLED)
+			Metrics.gridCreated(8L * sites + ((long) numBonds + 7) / 8 + 8L * numBonds);
+	}
+
+	// Number of bonds owned by a site of the class whose offsets start at start
+	private int owned(int start)
+	{
+		int count = 0;
+		for (int d=0; d<degree; d++)
+			if (rank[start + d] >= 0)
+				count++;
+		return count;
+	}
+
+	/** Closes all bonds again, as if newly created, reusing all arrays so repeated trials allocate nothing.
+	 * A reset lattice opens the same bonds as a new one for the same random stream.
+	 */
+	public void reset()
+	{
+		// Sites of first and last row touch virtual top and bottom
+		qu.reset();
+		for (int j=1; j<=columns; j++)
+		{
+			qu.union(j, 0);
+			qu.union((rows - 1) * columns + j, bottom);
+		}
+
+		// Closed list in bond order, where position of each bond is its dense number
+		bondOpen.clear();
+		numClosed = 0;
+		for (int i=1; i<=rows; i++)
+			for (int j=1; j<=columns; j++)
+			{
+				int start = rowBase[i] + colBase[j];
+				int key = ((i - 1) * columns + j - 1) * degree;
+				for (int d=0; d<degree; d++)
+					if (rank[start + d] >= 0)
+					{
+						closedPos[numClosed] = numClosed;
+						closedBonds[numClosed++] = key + d;
+					}
+			}
+	}
+
+	/** Opens bond between site (i, j) and its neighbor d if closed
+	 * @param i Row i
+	 * @param j Column j
+	 * @param d Neighbor number in lattice (0 to degree - 1, square: up, down, right, left)
+	 */
+	public void open(int i, int j, int d)
+	{
+		int key = bondKey(i, j, d);
+		if (!bondOpen.get(denseIndex(key)))
+			openBond(key);
+	}
+
+	/** Checks if bond between site (i, j) and its neighbor d is open
+	 * @param i Row i
+	 * @param j Column j
+	 * @param d Neighbor number in lattice
+	 * @return boolean
+	 */
+	public boolean isOpen(int i, int j, int d)
+	{
+		return bondOpen.get(denseIndex(bondKey(i, j, d)));
+	}
+
+	/** Opens random closed bond
+	 */
+	public void openRandom()
+	{
+		openRandom(rand);
+	}
+
+	/** Opens random closed bond, picked uniformly from the list of closed bonds. Does nothing if no bond is closed.
+	 * @param rand Random number generator
+	 */
+	public void openRandom(RandomGenerator rand)
+	{
+		if (numClosed > 0)
+			openBond(closedBonds[rand.nextInt(numClosed)]);
+	}
+
+	/** Opens random closed bonds until system percolates
+	 * @return int Number of open bonds when system first percolated
+	 */
+	public int runToPercolation()
+	{
+		return runToPercolation(rand);
+	}
+
+	/** Opens random closed bonds until system percolates, checking after every bond
+	 * @param rand Random number generator
+	 * @return int Number of open bonds when system first percolated
+	 */
+	public int runToPercolation(RandomGenerator rand)
+	{
+		while (!percolates())
+			openBond(closedBonds[rand.nextInt(numClosed)]);
+		return numberOfOpenBonds();
+	}
+
+	/** Opens closed bond and joins its two sites
+	 * @param key Bond key
+	 */
+	private void openBond(int key)
+	{
+		int site = key / degree + 1;
+		int d = key - (site - 1) * degree;
+		int i = (site - 1) / columns + 1;
+		int j = site - (i - 1) * columns;
+		int start = rowBase[i] + colBase[j];
+		int bond = rowFirst[i] + colFirst[rowBase[i]][j] + rank[start + d];
+
+		// Remove from closed list by swapping with last closed bond
+		int pos = closedPos[bond];
+		int moved = closedBonds[--numClosed];
+		closedBonds[pos] = moved;
+		closedPos[denseIndex(moved)] = pos;
+		closedBonds[numClosed] = key;
+		closedPos[bond] = numClosed;
+		bondOpen.set(bond);
+
+		qu.union(site, site + offsets[start + d]);
+	}
+
+	/** Returns dense number (0 to numberOfBonds() - 1) of bond with given key
+	 * @param key Bond key, (k - 1) * degree + d from its smaller site k
+	 * @return int
+	 */
+	private int denseIndex(int key)
+	{
+		int site = key / degree + 1;
+		int i = (site - 1) / columns + 1;
+		int j = site - (i - 1) * columns;
+		return rowFirst[i] + colFirst[rowBase[i]][j] + rank[rowBase[i] + colBase[j] + key - (site - 1) * degree];
+	}
+
+	/** Returns key of bond between site (i, j) and its neighbor d, from the smaller site and first neighbor number that own it
+	 * @param i Row i
+	 * @param j Column j
+	 * @param d Neighbor number in lattice
+	 * @return int
+	 */
+	private int bondKey(int i, int j, int d)
+	{
+		// Exception catch
+		if (i <= 0 || i > rows)
+			throw new IndexOutOfBoundsException("Invalid value for i (" + i + ").");
+		if (j <= 0 || j > columns)
+			throw new IndexOutOfBoundsException("Invalid value for j (" + j + ").");
+		if (d < 0 || d >= degree)
+			throw new IndexOutOfBoundsException("Invalid value for d (" + d + ").");
+
+		int site = (i - 1) * columns + j;
+		int other = neighbor(site, d);
+		if (other == site)
+			throw new IndexOutOfBoundsException("Site (" + i + ", " + j + ") has no neighbor " + d + ".");
+
+		// Stored from smaller end
+		int low = Math.min(site, other);
+		int high = Math.max(site, other);
+		for (int back=0; back<degree; back++)
+			if (neighbor(low, back) == high)
+				return (low - 1) * degree + back;
+		throw new IllegalStateException("Lattice neighbors are not symmetric.");
+	}
+
+	// Neighbor d of site, or site itself if it has none
+	private int neighbor(int site, int d)
+	{
+		return site + offsets[rowBase[(site - 1) / columns + 1] + colBase[(site - 1) % columns + 1] + d];
+	}
+
+	/** Checks if system percolates (first row joined to last row) in constant time using virtual nodes
+	 * @return boolean
+	 */
+	public boolean percolates()
+	{
+		return qu.connected(0, bottom);
+	}
+
+	/** Returns number of open bonds
+	 * @return int
+	 */
+	public int numberOfOpenBonds()
+	{
+		return numBonds - numClosed;
+	}
+
+	/** Returns number of bonds in lattice
+	 * @return int
+	 */
+	public int numberOfBonds()
+	{
+		return numBonds;
+	}
+
+	/** Returns current size of percolation grid (number of rows of lattice)
+	 * @return int
+	 */
+	public int getGridSize()
+	{
+		return rows;
+	}
+
+	/** Returns lattice of sites
+	 * @return Lattice
+	 */
+	public Lattice getLattice()
+	{
+		return lattice;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,251 @@
+package Methods;
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Labels all clusters of a static grid of open sites in one row by row sweep (Hoshen-Kopelman),
+ * deciding percolation and cluster statistics without opening sites one at a time.
+ * Only labels of the previous and current row are kept. Their equivalences live in a small union
+ * find that is renumbered after every row, so memory is a few rows no matter how tall the grid is.
+ * A cluster's size is added to the statistics once no site of the current row belongs to it.
+ */
+public class ClusterLabeler {
+
+	// Labels of previous and current row (-1 if closed)
+	private int[] prev;
+	private int[] cur;
+
+	// Label equivalence table: parent, number of sites, and whether cluster touches top row
+	private int[] parent;
+	private long[] labelSize;
+	private boolean[] labelTop;
+	private int numLabels;
+
+	// Renumbering of labels after each row, with space for moving surviving labels
+	private int[] remap;
+	private long[] keptSize;
+	private boolean[] keptTop;
+
+	// Results
+	private int size;
+	private boolean percolates;
+	private long openSites;
+	private long numClusters;
+	private long largestCluster;
+	private double sumSquaredSizes;
+	private TreeMap<Long, Long> histogram;
+
+	/**
+	 * Labels clusters of grid, where set bits are open sites
+	 * @param grid Open sites
+	 */
+	public ClusterLabeler(BitGrid grid)
+	{
+		size = grid.getGridSize();
+		if (grid.getColumns() != size)
+			throw new IllegalArgumentException("Grid is not square.");
+		prev = new int[size];
+		cur = new int[size];
+		parent = new int[2 * size + 2];
+		labelSize = new long[2 * size + 2];
+		labelTop = new boolean[2 * size + 2];
+		remap = new int[2 * size + 2];
+		keptSize = new long[2 * size + 2];
+		keptTop = new boolean[2 * size + 2];
+		histogram = new TreeMap<>();
+		Arrays.fill(prev, -1);
+
+		for (int r=0; r<size; r++)
+		{
+			labelRow(grid, r);
+			finishRow(r == size - 1);
+
+			// Current row becomes previous row
+			int[] temp = prev;
+			prev = cur;
+			cur = temp;
+		}
+	}
+
+	/** Labels open sites of row r, joining them with open neighbors above and to the left
+	 * @param grid Open sites
+	 * @param r Row
+	 */
+	private void labelRow(BitGrid grid, int r)
+	{
+		long rowStart = (long) r * size;
+		for (int c=0; c<size; c++)
+		{
+			if (!grid.get(rowStart + c))
+			{
+				cur[c] = -1;
+				continue;
+			}
+			openSites++;
+
+			// Join label above and label to the left
+			int label = -1;
+			if (prev[c] >= 0)
+				label = find(prev[c]);
+			if (c > 0 && cur[c - 1] >= 0)
+			{
+				int left = find(cur[c - 1]);
+				if (label < 0)
+					label = left;
+				else if (left != label)
+					label = join(label, left);
+			}
+
+			// New label if no open neighbor
+			if (label < 0)
+			{
+				label = numLabels++;
+				parent[label] = label;
+				labelSize[label] = 0;
+				labelTop[label] = (r == 0);
+			}
+			labelSize[label]++;
+			cur[c] = label;
+		}
+	}
+
+	/** Records clusters that no longer reach the current row, then renumbers labels of current row from 0.
+	 * On the last row, records every cluster and checks for one that touches top.
+	 * @param lastRow Whether current row is last row
+	 */
+	private void finishRow(boolean lastRow)
+	{
+		// Give each root still in current row a new number
+		Arrays.fill(remap, 0, numLabels, -1);
+		int kept = 0;
+		for (int c=0; c<size; c++)
+		{
+			if (cur[c] < 0)
+				continue;
+			int root = find(cur[c]);
+			if (remap[root] < 0)
+			{
+				remap[root] = kept++;
+				if (lastRow && labelTop[root])
+					percolates = true;
+			}
+		}
+
+		// Roots not in current row are finished clusters (all are finished on last row)
+		for (int l=0; l<numLabels; l++)
+			if (parent[l] == l && (remap[l] < 0 || lastRow))
+				record(labelSize[l]);
+
+		// Move surviving roots to their new numbers
+		for (int l=0; l<numLabels; l++)
+			if (parent[l] == l && remap[l] >= 0)
+			{
+				keptSize[remap[l]] = labelSize[l];
+				keptTop[remap[l]] = labelTop[l];
+			}
+		for (int c=0; c<size; c++)
+			if (cur[c] >= 0)
+				cur[c] = remap[find(cur[c])];
+		for (int l=0; l<kept; l++)
+		{
+			parent[l] = l;
+			labelSize[l] = keptSize[l];
+			labelTop[l] = keptTop[l];
+		}
+		numLabels = kept;
+	}
+
+	/** Adds finished cluster to statistics
+	 * @param clusterSize Number of sites in cluster
+	 */
+	private void record(long clusterSize)
+	{
+		numClusters++;
+		largestCluster = Math.max(largestCluster, clusterSize);
+		sumSquaredSizes += (double) clusterSize * clusterSize;
+		histogram.merge(clusterSize, 1L, Long::sum);
+	}
+
+	// Root of label, halving path on the way
+	private int find(int l)
+	{
+		while (parent[l] != l)
+		{
+			parent[l] = parent[parent[l]];
+			l = parent[l];
+		}
+		return l;
+	}
+
+	// Joins two root labels, returning new root
+	private int join(int a, int b)
+	{
+		if (labelSize[a] < labelSize[b])
+		{
+			int temp = a;
+			a = b;
+			b = temp;
+		}
+		parent[b] = a;
+		labelSize[a] += labelSize[b];
+		labelTop[a] |= labelTop[b];
+		return a;
+	}
+
+	/** Checks if grid percolates (an open cluster touches top and bottom rows)
+	 * @return boolean
+	 */
+	public boolean percolates()
+	{
+		return percolates;
+	}
+
+	/** Returns number of open sites
+	 * @return long
+	 */
+	public long numberOfOpenSites()
+	{
+		return openSites;
+	}
+
+	/** Returns number of clusters
+	 * @return long
+	 */
+	public long numberOfClusters()
+	{
+		return numClusters;
+	}
+
+	/** Returns number of sites in largest cluster
+	 * @return long
+	 */
+	public long largestClusterSize()
+	{
+		return largestCluster;
+	}
+
+	/** Returns cluster size histogram, mapping cluster size to number of clusters of that size
+	 * @return SortedMap
+	 */
+	public SortedMap<Long, Long> clusterSizeHistogram()
+	{
+		return new TreeMap<>(histogram);
+	}
+
+	/** Returns mean number of sites per cluster (0 if no site open)
+	 * @return double
+	 */
+	public double meanClusterSize()
+	{
+		return (numClusters == 0 ? 0: openSites / (double) numClusters);
+	}
+
+	/** Returns mean size of cluster that a random open site belongs to, sum(s^2) / sum(s) (0 if no site open)
+	 * @return double
+	 */
+	public double weightedMeanClusterSize()
+	{
+		return (openSites == 0 ? 0: sumSquaredSizes / openSites);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+package Methods;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Creates percolation object that many threads can open sites in at once, so cores can share one huge grid.
+ * Open sites are bits set atomically through a VarHandle, and sites are joined with lock free
+ * ConcurrentQuickUnions (one with virtual top and bottom for percolates, one with only virtual top for isFull).
+ * An opening thread sets its bit before checking neighbors, so of two neighbors opened at the same time
+ * at least one sees the other and joins them.
+ */
+public class ConcurrentPercolation {
+
+	// Atomic access to open bit words
+	private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	// Quick unions (virtual top 0, virtual bottom n*n+1 only in qu)
+	private ConcurrentQuickUnion qu;
+	private ConcurrentQuickUnion fullQu;
+	private int bottom;
+
+	// Bit per site to keep track of open sites, site index k stored at bit k
+	private long[] gridOpen;
+	private LongAdder numOpen;
+
+	// Keeps size (n x n) of system for easy reference
+	private int size;
+
+	/**
+	 * Create n-by-n grid, with all sites initially blocked
+	 * @param n Size of grid (n x n)
+	 */
+	public ConcurrentPercolation(int n)
+	{
+		// Exception catch
+		if (n <= 0 || (long) n * n + 2 > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Invalid value for n.");
+
+		size = n;
+		bottom = n * n + 1;
+		qu = new ConcurrentQuickUnion(n * n + 2);
+		fullQu = new ConcurrentQuickUnion(n * n + 1);
+		gridOpen = new long[(n * n + 2 + 63) >>> 6];
+		numOpen = new LongAdder();
+	}
+
+	/** Open site (row i, column j) if closed. Safe to call from many threads at once.
+	 * @param i Row i
+	 * @param j Column j
+	 * @return boolean True if this call opened the site
+	 */
+	public boolean open(int i, int j)
+	{
+		exceptionCheck(i, j);
+		int index = (i - 1) * size + j;
+
+		// Set open bit, only one thread wins
+		long mask = 1L << index;
+		if (((long) WORDS.getAndBitwiseOr(gridOpen, index >>> 6, mask) & mask) != 0)
+			return false;
+		numOpen.increment();
+
+		// Top and bottom rows
+		if (i == 1)
+		{
+			qu.union(index, 0);
+			fullQu.union(index, 0);
+		}
+		if (i == size)
+			qu.union(index, bottom);
+
+		// Join open neighbors
+		if (i > 1 && isOpenSite(index - size))
+			union(index, index - size);
+		if (i < size && isOpenSite(index + size))
+			union(index, index + size);
+		if (j < size && isOpenSite(index + 1))
+			union(index, index + 1);
+		if (j > 1 && isOpenSite(index - 1))
+			union(index, index - 1);
+		return true;
+	}
+
+	/** Opens random closed cell in grid using rejection sampling. Each thread should use its own generator.
+	 * Does nothing if no site is closed.
+	 * @param rand Random number generator
+	 */
+	public void openRandom(RandomGenerator rand)
+	{
+		while (numberOfOpenSites() < (long) size * size)
+			if (open(rand.nextInt(size) + 1, rand.nextInt(size) + 1))
+				return;
+			else if (Metrics.ENABLED)
+				Metrics.rejection();
+	}
+
+	/** Checks if cell (i, j) is open
+	 * @param i Row i
+	 * @param j Column j
+	 * @return boolean
+	 */
+	public boolean isOpen(int i, int j)
+	{
+		exceptionCheck(i, j);
+		return isOpenSite((i - 1) * size + j);
+	}
+
+	/** Checks if cell (i, j) is open and connected to top
+	 * @param i Row i
+	 * @param j Column j
+	 * @return boolean
+	 */
+	public boolean isFull(int i, int j)
+	{
+		exceptionCheck(i, j);
+		int index = (i - 1) * size + j;
+		return isOpenSite(index) && fullQu.connected(index, 0);
+	}
+
+	/** Checks if system percolates (top reaches bottom)
+	 * @return boolean
+	 */
+	public boolean percolates()
+	{
+		return qu.connected(0, bottom);
+	}
+
+	/** Returns number of open sites
+	 * @return long
+	 */
+	public long numberOfOpenSites()
+	{
+		return numOpen.sum();
+	}
+
+	/** Returns current size of percolation grid
+	 * @return int
+	 */
+	public int getGridSize()
+	{
+		return size;
+	}
+
+	// Joins two sites in both quick unions
+	private void union(int p, int q)
+	{
+		qu.union(p, q);
+		fullQu.union(p, q);
+	}
+
+	// Checks open bit of site index
+	private boolean isOpenSite(int index)
+	{
+		return ((long) WORDS.getVolatile(gridOpen, index >>> 6) & (1L << index)) != 0;
+	}
+
+	/** Check if (i, j) is valid grid cell
+	 * @param i Grid row
+	 * @param j Grid column
+	 */
+	private void exceptionCheck(int i, int j)
+	{
+		// Exception catch
+		if (i <= 0 || i > size)
+			throw new IndexOutOfBoundsException("Invalid value for i (" + i + ").");
+		if (j <= 0 || j > size)
+			throw new IndexOutOfBoundsException("Invalid value for j (" + j + ").");
+	}
+}
\ No newline at end of file
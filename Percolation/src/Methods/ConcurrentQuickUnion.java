@@ -0,0 +1,123 @@
+package Methods;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Creates quick union object that many threads can use at once without locks.
+ * Parents live in an AtomicIntegerArray. Finds only ever shorten paths with compare and set
+ * (path halving), so they never wait on other threads. Unions link the root with the lower priority
+ * under the root with the higher priority by compare and set, retrying if another thread got there first.
+ * Priority is a fixed scrambling of the index, so trees stay acyclic without any shared rank or size,
+ * and row by row opening does not build long chains.
+ */
+public class ConcurrentQuickUnion {
+
+	// Parent of each node
+	private AtomicIntegerArray id;
+
+	/**
+	 * Initializes quick union object to size n
+	 * @param n Number of objects in quick union
+	 */
+	public ConcurrentQuickUnion(int n)
+	{
+		// Checks if valid input
+		if (n <= 0)
+			throw new IllegalArgumentException("Invalid input for n.");
+
+		id = new AtomicIntegerArray(n);
+		for (int i=0; i<n; i++)
+			id.set(i, i);
+	}
+
+	/** Provides root of node, halving path on the way
+	 * @param i Initial node
+	 * @return int
+	 */
+	public int find(int i)
+	{
+		// Checks if valid input
+		exceptionCheck(i);
+
+		int p = id.get(i);
+		while (p != i)
+		{
+			// Point node at its grandparent, fine if another thread changed it first
+			int gp = id.get(p);
+			if (gp != p)
+				id.compareAndSet(i, p, gp);
+			i = p;
+			p = id.get(i);
+		}
+		return i;
+	}
+
+	/** Checks if two nodes are connected. Result is exact at some moment during the call.
+	 * @param p Node 1
+	 * @param q Node 2
+	 * @return boolean
+	 */
+	public boolean connected(int p, int q)
+	{
+		while (true)
+		{
+			int i = find(p);
+			int j = find(q);
+			if (i == j)
+				return true;
+
+			// Not connected if first root was still a root after second was found
+			if (id.get(i) == i)
+				return false;
+		}
+	}
+
+	/** Connects two nodes by linking root with lower priority under root with higher priority
+	 * @param p Node 1
+	 * @param q Node 2
+	 * @return boolean True if this call joined two trees
+	 */
+	public boolean union(int p, int q)
+	{
+		while (true)
+		{
+			int i = find(p);
+			int j = find(q);
+
+			// Already share root
+			if (i == j)
+				return false;
+
+			// Link, retrying if lower root stopped being a root
+			if (priority(i) > priority(j))
+			{
+				int temp = i;
+				i = j;
+				j = temp;
+			}
+			if (id.compareAndSet(i, i, j))
+				return true;
+		}
+	}
+
+	/** Returns number of nodes
+	 * @return int
+	 */
+	public int size()
+	{
+		return id.length();
+	}
+
+	// Fixed scrambling of index (multiplying by an odd number is one to one, so no ties)
+	private static int priority(int i)
+	{
+		return i * 0x9E3779B9;
+	}
+
+	// Exception check
+	private void exceptionCheck(int i)
+	{
+		// Exception catch
+		if (i < 0 || i > id.length() - 1)
+			throw new IndexOutOfBoundsException("Invalid value for i (" + i + ").");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,322 @@
+package Methods;
+import java.util.Arrays;
+
+/**
+ * Creates quick union object with a choice of linking rule and path compression, for comparing variants.
+ * Linking puts the root with lower rank, smaller size, or lower index priority under the other
+ * (index priority is a fixed scrambling of the index, so it acts like a random order).
+ * Compression is full (every node on the path points at the root), halving (every other node points
+ * at its grandparent) or splitting (every node points at its grandparent).
+ * Sizes are kept for every rule, so size() works with all of them. With counting on, every find
+ * adds to the number of finds and the number of nodes visited on the way to the root.
+ */
+public class ConfigurableQuickUnion implements UnionFind {
+
+	/** Rule for which root goes under which */
+	public enum Linking { RANK, SIZE, INDEX }
+
+	/** Way paths are shortened during find */
+	public enum Compression { FULL, HALVING, SPLITTING }
+
+	// Variables
+	private int[] id;
+	private int[] treeSize;
+	private byte[] rank;
+	private Linking linking;
+	private Compression compression;
+
+	// Counters of finds and nodes visited, only kept if counting
+	private boolean counting;
+	private long finds;
+	private long pathLength;
+
+	/**
+	 * Initializes quick union object to size n, without counters
+	 * @param n Number of objects in quick union
+	 * @param linking Linking rule
+	 * @param compression Path compression
+	 */
+	public ConfigurableQuickUnion(int n, Linking linking, Compression compression)
+	{
+		this(n, linking, compression, false);
+	}
+
+	/**
+	 * Initializes quick union object to size n
+	 * @param n Number of objects in quick union
+	 * @param linking Linking rule
+	 * @param compression Path compression
+	 * @param counting Whether to count finds and path length
+	 */
+	public ConfigurableQuickUnion(int n, Linking linking, Compression compression, boolean counting)
+	{
+		// Checks if valid input
+		if (n <= 0)
+			throw new IllegalArgumentException("Invalid input for n.");
+
+		this.linking = linking;
+		this.compression = compression;
+		this.counting = counting;
+		id = new int[n];
+		treeSize = new int[n];
+		if (linking == Linking.RANK)
+			rank = new byte[n];
+		reset();
+	}
+
+	/** Disconnects all nodes again, reusing arrays (counters are kept, see resetCounters)
+	 */
+	public void reset()
+	{
+		for (int i=0; i<id.length; i++)
+			id[i] = i;
+		Arrays.fill(treeSize, 1);
+		if (rank != null)
+			Arrays.fill(rank, (byte) 0);
+	}
+
+	/** Provides root of node, compressing path on the way
+	 * @param i Initial node
+	 * @return int
+	 */
+	private int root(int i)
+	{
+		int steps = 0;
+		switch (compression)
+		{
+			case FULL:
+			{
+				// Find root, then point every node on path at it
+				int r = i;
+				while (r != id[r])
+				{
+					r = id[r];
+					steps++;
+				}
+				while (i != r)
+				{
+					int next = id[i];
+					id[i] = r;
+					i = next;
+				}
+				break;
+			}
+			case HALVING:
+				while (i != id[i])
+				{
+					id[i] = id[id[i]];
+					i = id[i];
+					steps++;
+				}
+				break;
+			case SPLITTING:
+				while (i != id[i])
+				{
+					int next = id[i];
+					id[i] = id[next];
+					i = next;
+					steps++;
+				}
+				break;
+		}
+		if (counting)
+		{
+			finds++;
+			pathLength += steps;
+		}
+		return i;
+	}
+
+	/** Returns root of node's tree (same for all connected nodes)
+	 * @param p Node
+	 * @return int
+	 */
+	public int find(int p)
+	{
+		exceptionCheck(p);
+		return root(p);
+	}
+
+	/** Returns number of nodes connected to node (including itself)
+	 * @param p Node
+	 * @return int
+	 */
+	public int size(int p)
+	{
+		exceptionCheck(p);
+		return treeSize[root(p)];
+	}
+
+	/** Checks if two nodes are connected
+	 * @param p Node 1
+	 * @param q Node 2
+	 * @return boolean
+	 */
+	public boolean connected(int p, int q)
+	{
+		exceptionCheck(p);
+		exceptionCheck(q);
+		return root(p) == root(q);
+	}
+
+	/** Connects two nodes by putting one root under the other by linking rule
+	 * @param p Node 1
+	 * @param q Node 2
+	 */
+	public void union(int p, int q)
+	{
+		// Checks if valid input
+		exceptionCheck(p);
+		exceptionCheck(q);
+		unionUnchecked(p, q);
+	}
+
+	/** Connects two nodes by linking rule without range checks, for Percolation whose sites are valid by construction
+	 * @param p Node 1
+	 * @param q Node 2
+	 */
+	public void unionUnchecked(int p, int q)
+	{
+		// Finds root
+		int i = root(p);
+		int j = root(q);
+
+		// Already share root
+		if (i == j)
+			return;
+		linkRoots(i, j);
+	}
+
+	/** Returns root of node's tree without range check
+	 * @param p Node
+	 * @return int
+	 */
+	public int findUnchecked(int p)
+	{
+		return root(p);
+	}
+
+	/** Returns number of nodes connected to node without range check
+	 * @param p Node
+	 * @return int
+	 */
+	public int sizeUnchecked(int p)
+	{
+		return treeSize[root(p)];
+	}
+
+	/** Puts one of two different roots under the other by linking rule without checking them
+	 * @param i Root 1
+	 * @param j Root 2
+	 * @return int Root of joined tree
+	 */
+	public int linkUnchecked(int i, int j)
+	{
+		return linkRoots(i, j);
+	}
+
+	/** Puts one of two different roots under the other by linking rule, without walking either tree again
+	 * @param i Root 1
+	 * @param j Root 2
+	 * @return int Root of joined tree
+	 */
+	public int link(int i, int j)
+	{
+		// Checks if valid input
+		exceptionCheck(i);
+		exceptionCheck(j);
+		if (id[i] != i || id[j] != j || i == j)
+			throw new IllegalArgumentException("Invalid roots (" + i + ", " + j + ").");
+		return linkRoots(i, j);
+	}
+
+	/** Puts root i under root j, or j under i, by linking rule
+	 * @param i Root 1
+	 * @param j Root 2
+	 * @return int Root of joined tree
+	 */
+	private int linkRoots(int i, int j)
+	{
+		// Make i the root that goes under j
+		boolean swap;
+		switch (linking)
+		{
+			case RANK:
+				swap = rank[i] > rank[j];
+				if (rank[i] == rank[j])
+					rank[j]++;
+				break;
+			case SIZE:
+				swap = treeSize[i] > treeSize[j];
+				break;
+			default:
+				swap = i * 0x9E3779B9 > j * 0x9E3779B9;
+				break;
+		}
+		if (swap)
+		{
+			int temp = i;
+			i = j;
+			j = temp;
+		}
+		id[i] = j;
+		treeSize[j] += treeSize[i];
+		return j;
+	}
+
+	/** Returns number of finds since counters were reset (0 if not counting)
+	 * @return long
+	 */
+	public long getFinds()
+	{
+		return finds;
+	}
+
+	/** Returns number of nodes visited on the way to roots since counters were reset (0 if not counting)
+	 * @return long
+	 */
+	public long getPathLength()
+	{
+		return pathLength;
+	}
+
+	/** Returns mean number of nodes visited per find (0 if no finds counted)
+	 * @return double
+	 */
+	public double meanPathLength()
+	{
+		return (finds == 0 ? 0: pathLength / (double) finds);
+	}
+
+	/** Sets counters back to zero
+	 */
+	public void resetCounters()
+	{
+		finds = 0;
+		pathLength = 0;
+	}
+
+	/** Returns linking rule
+	 * @return Linking
+	 */
+	public Linking getLinking()
+	{
+		return linking;
+	}
+
+	/** Returns path compression
+	 * @return Compression
+	 */
+	public Compression getCompression()
+	{
+		return compression;
+	}
+
+	// Exception check
+	private void exceptionCheck(int i)
+	{
+		// Exception catch
+		if (i < 0 || i > id.length - 1)
+			throw new IndexOutOfBoundsException("Invalid value for i (" + i + ").");
+	}
+}
\ No newline at end of file
@@ -61,7 +61,7 @@ public class Controller {
 		if (n <= 0)
 			throw new IllegalArgumentException("Invalid value for n.");
 		
-		perc = new Percolation(this, n);
+		perc = new Percolation(n);
 		percPanel.setPerc(perc);
 	}
 	
@@ -0,0 +1,120 @@
+package Methods;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe histogram of non-negative values (e.g. nanoseconds) in log-linear buckets, as HdrHistogram does:
+ * each power of two is split into 32 equal buckets, so any recorded value is known within about 3%,
+ * from 1 to Long.MAX_VALUE in under 2000 buckets. Recording is one atomic increment.
+ */
+public class LatencyHistogram {
+
+	// Buckets per power of two (2^SUB_BITS)
+	private static final int SUB_BITS = 5;
+	private static final int SUB = 1 << SUB_BITS;
+
+	// Count of each bucket, and totals
+	private AtomicLongArray counts;
+	private LongAdder count;
+	private LongAdder sum;
+	private LongAccumulator max;
+
+	/**
+	 * Creates empty histogram
+	 */
+	public LatencyHistogram()
+	{
+		counts = new AtomicLongArray((64 - SUB_BITS + 1) * SUB);
+		count = new LongAdder();
+		sum = new LongAdder();
+		max = new LongAccumulator(Math::max, 0);
+	}
+
+	/** Records value (negative values count as 0)
+	 * @param value Value
+	 */
+	public void record(long value)
+	{
+		value = Math.max(value, 0);
+		counts.incrementAndGet(bucket(value));
+		count.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	/** Returns bucket of value: values below 32 have their own bucket, above that 32 buckets per power of two
+	 * @param value Value
+	 * @return int
+	 */
+	private static int bucket(long value)
+	{
+		if (value < SUB)
+			return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB - 1);
+		return (exponent - SUB_BITS + 1) * SUB + sub;
+	}
+
+	/** Returns largest value of bucket b
+	 * @param b Bucket
+	 * @return long
+	 */
+	private static long bucketTop(int b)
+	{
+		if (b < SUB)
+			return b;
+		int exponent = b / SUB + SUB_BITS - 1;
+		long low = (long) (SUB + b % SUB) << (exponent - SUB_BITS);
+		return low + (1L << (exponent - SUB_BITS)) - 1;
+	}
+
+	/** Returns value at or below which fraction q of recorded values lie (within bucket precision, 0 if empty)
+	 * @param q Fraction (0 to 1, e.g. 0.99)
+	 * @return long
+	 */
+	public long percentile(double q)
+	{
+		// Exception catch
+		if (!(q >= 0 && q <= 1))
+			throw new IllegalArgumentException("Invalid value for q (" + q + ").");
+
+		long total = count();
+		if (total == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(q * total));
+		long seen = 0;
+		for (int b=0; b<counts.length(); b++)
+		{
+			seen += counts.get(b);
+			if (seen >= rank)
+				return Math.min(bucketTop(b), max());
+		}
+		return max();
+	}
+
+	/** Returns number of recorded values
+	 * @return long
+	 */
+	public long count()
+	{
+		return count.sum();
+	}
+
+	/** Returns mean of recorded values (0 if empty)
+	 * @return double
+	 */
+	public double mean()
+	{
+		long total = count();
+		return (total == 0 ? 0: sum.sum() / (double) total);
+	}
+
+	/** Returns largest recorded value (0 if empty)
+	 * @return long
+	 */
+	public long max()
+	{
+		return max.get();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,317 @@
+package Methods;
+
+/**
+ * Neighborhood of a percolation lattice: square, triangular, hexagonal (honeycomb) or simple cubic,
+ * with open or periodic side boundaries. Sites are numbered 1 to rows * columns row by row, like
+ * Percolation, where a row is a layer across the percolation direction (an n x n layer for cubic lattices),
+ * so percolation always runs from row 1 to the last row and rows are never wrapped.
+ * Sites in the same boundary class (first, middle, last or only row and column, and parity for
+ * honeycombs) have the same neighbor offsets, so the lattice stores one offset vector per class
+ * instead of a neighbor list per site. A missing neighbor has offset 0, pointing back at the site itself,
+ * so callers loop over all offsets without checking bounds.
+ */
+public class Lattice {
+
+	/**
+	 * Neighbor of site (i, j) in a lattice, used once per boundary class while building offsets
+	 */
+	private interface Neighbors {
+
+		/** Returns neighbor d of site (i, j), or 0 if it has none
+		 * @param i Row
+		 * @param j Column
+		 * @param d Neighbor number
+		 * @return int
+		 */
+		int neighbor(int i, int j, int d);
+	}
+
+	// Name, dimensions and boundary of lattice
+	private String name;
+	private int rows;
+	private int columns;
+	private int degree;
+	private boolean periodic;
+
+	// Start of offset vector of site (i, j) is rowBase[i] + colBase[j], neighbor d at offsets[start + d]
+	final int[] rowBase;
+	final int[] colBase;
+	final int[] offsets;
+
+	/**
+	 * Builds offsets of lattice from neighbors of one site per boundary class
+	 * @param name Name of lattice
+	 * @param rows Number of rows (layers)
+	 * @param columns Number of sites per row
+	 * @param degree Number of neighbors per site
+	 * @param periodic Whether sides wrap around
+	 * @param rowType Boundary class of each row (1 to rows), below rowTypes
+	 * @param colType Boundary class of each column (1 to columns), below colTypes
+	 * @param rowTypes Number of row classes
+	 * @param colTypes Number of column classes
+	 * @param sampleRows Rows that cover every row class
+	 * @param sampleColumns Columns that cover every column class
+	 * @param neighbors Neighbors of a site
+	 */
+	private Lattice(String name, int rows, int columns, int degree, boolean periodic, int[] rowType, int[] colType,
+			int rowTypes, int colTypes, int[] sampleRows, int[] sampleColumns, Neighbors neighbors)
+	{
+		this.name = name;
+		this.rows = rows;
+		this.columns = columns;
+		this.degree = degree;
+		this.periodic = periodic;
+
+		// Class of each row and column, as start of its offsets
+		rowBase = new int[rows + 1];
+		colBase = new int[columns + 1];
+		for (int i=1; i<=rows; i++)
+			rowBase[i] = rowType[i] * colTypes * degree;
+		for (int j=1; j<=columns; j++)
+			colBase[j] = colType[j] * degree;
+
+		// Offsets of each class, from a site of that class
+		offsets = new int[rowTypes * colTypes * degree];
+		for (int i:sampleRows)
+			for (int j:sampleColumns)
+			{
+				if (i < 1 || i > rows || j < 1 || j > columns)
+					continue;
+				int site = (i - 1) * columns + j;
+				int start = rowBase[i] + colBase[j];
+				for (int d=0; d<degree; d++)
+				{
+					int other = neighbors.neighbor(i, j, d);
+					offsets[start + d] = (other == 0 ? 0: other - site);
+				}
+			}
+	}
+
+	/** Creates n x n square lattice with open sides (neighbors up, down, right, left)
+	 * @param n Size of lattice (n x n)
+	 * @return Lattice
+	 */
+	public static Lattice square(int n)
+	{
+		return square(n, false);
+	}
+
+	/** Creates n x n square lattice (neighbors up, down, right, left)
+	 * @param n Size of lattice (n x n)
+	 * @param periodic Whether left and right sides wrap around
+	 * @return Lattice
+	 */
+	public static Lattice square(int n, boolean periodic)
+	{
+		sizeCheck(n, 2);
+		int[] type = edgeTypes(n);
+		return new Lattice("square", n, n, 4, periodic, type, type, 4, 4, samples(n), samples(n),
+				(i, j, d) -> planar(n, periodic, i, j, (d == 0 ? -1: d == 1 ? 1: 0), (d == 2 ? 1: d == 3 ? -1: 0)));
+	}
+
+	/** Creates n x n triangular lattice, drawn as a square lattice with one added diagonal
+	 * (neighbors up, down, right, left, up right, down left)
+	 * @param n Size of lattice (n x n)
+	 * @param periodic Whether left and right sides wrap around
+	 * @return Lattice
+	 */
+	public static Lattice triangular(int n, boolean periodic)
+	{
+		sizeCheck(n, 2);
+		int[] di = {-1, 1, 0, 0, -1, 1};
+		int[] dj = {0, 0, 1, -1, 1, -1};
+		int[] type = edgeTypes(n);
+		return new Lattice("triangular", n, n, 6, periodic, type, type, 4, 4, samples(n), samples(n),
+				(i, j, d) -> planar(n, periodic, i, j, di[d], dj[d]));
+	}
+
+	/** Creates n x n hexagonal (honeycomb) lattice, drawn as a brick wall: neighbors right and left,
+	 * and down if i + j is even or up if odd. Use even n for a seamless periodic honeycomb.
+	 * @param n Size of lattice (n x n)
+	 * @param periodic Whether left and right sides wrap around
+	 * @return Lattice
+	 */
+	public static Lattice hexagonal(int n, boolean periodic)
+	{
+		sizeCheck(n, 2);
+		int[] edge = edgeTypes(n);
+		int[] type = new int[n + 1];
+		for (int k=1; k<=n; k++)
+			type[k] = edge[k] * 2 + (k & 1);
+		return new Lattice("hexagonal", n, n, 3, periodic, type, type, 8, 8, samples(n), samples(n),
+				(i, j, d) -> planar(n, periodic, i, j, (d < 2 ? 0: (i + j) % 2 == 0 ? 1: -1), (d == 0 ? 1: d == 1 ? -1: 0)));
+	}
+
+	/** Creates n x n x n simple cubic lattice as n layers of n x n sites, percolating from first to last layer
+	 * (neighbors up, down, right, left, front, back). Site (x, y) of layer i is column (y - 1) * n + x.
+	 * @param n Size of lattice (n x n x n)
+	 * @param periodic Whether the four sides wrap around
+	 * @return Lattice
+	 */
+	public static Lattice cubic(int n, boolean periodic)
+	{
+		sizeCheck(n, 3);
+		int[] edge = edgeTypes(n);
+		int[] colType = new int[n * n + 1];
+		int[] sampleColumns = new int[25];
+		for (int y=1; y<=n; y++)
+			for (int x=1; x<=n; x++)
+				colType[(y - 1) * n + x] = edge[y] * 4 + edge[x];
+		int[] s = samples(n);
+		for (int a=0; a<5; a++)
+			for (int b=0; b<5; b++)
+				sampleColumns[a * 5 + b] = (s[a] < 1 || s[a] > n || s[b] < 1 || s[b] > n ? 0: (s[a] - 1) * n + s[b]);
+		return new Lattice("cubic", n, n * n, 6, periodic, edge, colType, 4, 16, s, sampleColumns, (i, j, d) -> {
+			// Neighbors across layers, then within layer
+			if (d < 2)
+			{
+				int layer = i + (d == 0 ? -1: 1);
+				return (layer < 1 || layer > n ? 0: (layer - 1) * n * n + j);
+			}
+			int y = (j - 1) / n + 1;
+			int x = (j - 1) % n + 1;
+			int other = (d < 4 ? planar(n, periodic, y, x, 0, (d == 2 ? 1: -1)): planar(n, periodic, x, y, 0, (d == 4 ? 1: -1)));
+			if (other == 0)
+				return 0;
+			if (d >= 4)
+				other = (other - 1) % n * n + (other - 1) / n + 1;
+			return (i - 1) * n * n + other;
+		});
+	}
+
+	/** Returns site (i + di, j + dj) of an n x n layer, wrapping columns if periodic, or 0 if outside
+	 * @param n Size of layer
+	 * @param periodic Whether columns wrap around
+	 * @param i Row
+	 * @param j Column
+	 * @param di Row step
+	 * @param dj Column step
+	 * @return int
+	 */
+	private static int planar(int n, boolean periodic, int i, int j, int di, int dj)
+	{
+		i += di;
+		j += dj;
+		if (periodic)
+			j = Math.floorMod(j - 1, n) + 1;
+		if (i < 1 || i > n || j < 1 || j > n)
+			return 0;
+		return (i - 1) * n + j;
+	}
+
+	// Boundary class of 1 to n: 0 middle, 1 first, 2 last, 3 both first and last
+	private static int[] edgeTypes(int n)
+	{
+		int[] type = new int[n + 1];
+		for (int k=1; k<=n; k++)
+			type[k] = (k == 1 ? 1: 0) + (k == n ? 2: 0);
+		return type;
+	}
+
+	// Indices that cover every boundary class and parity of 1 to n (some may be out of range)
+	private static int[] samples(int n)
+	{
+		return new int[] {1, 2, 3, n - 1, n};
+	}
+
+	// Checks that n^dimension sites (plus two virtual nodes) can be indexed by int
+	private static void sizeCheck(int n, int dimension)
+	{
+		// Exception catch
+		if (n <= 0 || Math.pow(n, dimension) + 2 > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Invalid value for n.");
+	}
+
+	/** Returns neighbor d of site, or site itself if it has no such neighbor
+	 * @param site Site index (1 to number of sites)
+	 * @param d Neighbor number (0 to degree - 1)
+	 * @return int
+	 */
+	public int neighbor(int site, int d)
+	{
+		// Exception catch
+		if (site <= 0 || site > getSites())
+			throw new IndexOutOfBoundsException("Invalid value for site (" + site + ").");
+		if (d < 0 || d >= degree)
+			throw new IndexOutOfBoundsException("Invalid value for d (" + d + ").");
+
+		int i = (site - 1) / columns + 1;
+		int j = (site - 1) % columns + 1;
+		return site + offsets[rowBase[i] + colBase[j] + d];
+	}
+
+	/** Returns name of lattice
+	 * @return String
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/** Returns number of rows (layers), the direction of percolation
+	 * @return int
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+
+	/** Returns number of sites per row
+	 * @return int
+	 */
+	public int getColumns()
+	{
+		return columns;
+	}
+
+	/** Returns number of sites
+	 * @return int
+	 */
+	public int getSites()
+	{
+		return rows * columns;
+	}
+
+	/** Returns number of bonds (distinct pairs of neighboring sites, counted once even if
+	 * a periodic row of two sites reaches the same neighbor both ways)
+	 * @return long
+	 */
+	public long getBonds()
+	{
+		long bonds = 0;
+		for (int site=1; site<=getSites(); site++)
+			for (int d=0; d<degree; d++)
+			{
+				// Counted from smaller site, by first neighbor number reaching the other
+				int other = neighbor(site, d);
+				boolean first = other > site;
+				for (int e=0; e<d && first; e++)
+					first = neighbor(site, e) != other;
+				if (first)
+					bonds++;
+			}
+		return bonds;
+	}
+
+	/** Returns number of neighbors per site
+	 * @return int
+	 */
+	public int getDegree()
+	{
+		return degree;
+	}
+
+	/** Checks if sides wrap around
+	 * @return boolean
+	 */
+	public boolean isPeriodic()
+	{
+		return periodic;
+	}
+
+	@Override
+	public String toString()
+	{
+		return name + (periodic ? " periodic ": " ") + rows + " x " + columns;
+	}
+}
\ No newline at end of file
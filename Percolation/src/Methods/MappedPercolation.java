@@ -0,0 +1,194 @@
+package Methods;
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.random.RandomGenerator;
+
+/**
+ * Creates percolation object for grids too large for the heap (e.g. 100000 x 100000).
+ * Union find and open sites are kept off heap in memory mapped temp files and indexed with long.
+ * Instead of virtual top and bottom nodes, each root is tagged when its cluster touches the top
+ * or bottom row, which keeps isFull free of backwash with a single union find.
+ */
+public class MappedPercolation implements Closeable {
+
+	// Off heap union find over all n * n sites
+	private MappedQuickUnion qu;
+
+	// Bit per site to keep track of open sites
+	private MappedRegion gridOpen;
+
+	// Keeps size (n x n) of system for easy reference
+	private int size;
+
+	// Number of open sites and whether system has percolated
+	private long numOpen;
+	private boolean percolated;
+
+	/**
+	 * Create n-by-n grid in system temp directory, with all sites initially blocked
+	 * @param n Size of grid (n x n)
+	 */
+	public MappedPercolation(int n)
+	{
+		this(n, null);
+	}
+
+	/**
+	 * Create n-by-n grid, with all sites initially blocked
+	 * @param n Size of grid (n x n)
+	 * @param dir Directory for backing files (null for system temp directory)
+	 */
+	public MappedPercolation(int n, Path dir)
+	{
+		// Exception catch
+		if (n <= 0)
+			throw new IllegalArgumentException("Invalid value for n.");
+
+		size = n;
+		long sites = (long) n * n;
+		qu = new MappedQuickUnion(sites, dir);
+		try {
+			gridOpen = new MappedRegion(dir, (sites + 7) >>> 3);
+		} catch (RuntimeException error) {
+			qu.close();
+			throw error;
+		}
+	}
+
+	/** Open site (row i, column j) if closed
+	 * @param i Row i
+	 * @param j Column j
+	 */
+	public void open(int i, int j)
+	{
+		exceptionCheck(i, j);
+		long index = site(i, j);
+		if (isOpenSite(index))
+			return;
+
+		// Mark open
+		gridOpen.putByte(index >>> 3, (byte) (gridOpen.getByte(index >>> 3) | (1 << (index & 7))));
+		numOpen++;
+
+		// Top and bottom rows tag their cluster
+		if (i == 1)
+			qu.tag(index, MappedQuickUnion.TAG_A);
+		if (i == size)
+			qu.tag(index, MappedQuickUnion.TAG_B);
+
+		// Join open neighbors
+		if (i > 1 && isOpenSite(index - size))
+			qu.union(index, index - size);
+		if (i < size && isOpenSite(index + size))
+			qu.union(index, index + size);
+		if (j < size && isOpenSite(index + 1))
+			qu.union(index, index + 1);
+		if (j > 1 && isOpenSite(index - 1))
+			qu.union(index, index - 1);
+
+		// Percolates once any cluster touches both top and bottom
+		if (qu.tags(index) == (MappedQuickUnion.TAG_A | MappedQuickUnion.TAG_B))
+			percolated = true;
+	}
+
+	/** Opens random closed cell in grid.
+	 * Uses rejection sampling, since a closed site list would cost more memory than the grid itself.
+	 * Does nothing if no site is closed.
+	 * @param rand Random number generator
+	 */
+	public void openRandom(RandomGenerator rand)
+	{
+		if (numOpen == (long) size * size)
+			return;
+
+		int i, j;
+		do {
+			i = rand.nextInt(size) + 1;
+			j = rand.nextInt(size) + 1;
+			if (Metrics.ENABLED && isOpenSite(site(i, j)))
+				Metrics.rejection();
+		} while (isOpenSite(site(i, j)));
+		open(i, j);
+	}
+
+	/** Checks if cell (i, j) is open
+	 * @param i Row i
+	 * @param j Column j
+	 * @return boolean
+	 */
+	public boolean isOpen(int i, int j)
+	{
+		exceptionCheck(i, j);
+		return isOpenSite(site(i, j));
+	}
+
+	/** Checks if cell (i, j) is open and connected to top
+	 * @param i Row i
+	 * @param j Column j
+	 * @return boolean
+	 */
+	public boolean isFull(int i, int j)
+	{
+		exceptionCheck(i, j);
+		long index = site(i, j);
+		return isOpenSite(index) && (qu.tags(index) & MappedQuickUnion.TAG_A) != 0;
+	}
+
+	/** Checks if system percolates (top reaches bottom)
+	 * @return boolean
+	 */
+	public boolean percolates()
+	{
+		return percolated;
+	}
+
+	/** Returns number of open sites
+	 * @return long
+	 */
+	public long numberOfOpenSites()
+	{
+		return numOpen;
+	}
+
+	/** Returns current size of percolation grid
+	 * @return int
+	 */
+	public int getGridSize()
+	{
+		return size;
+	}
+
+	/** Releases and deletes backing files
+	 */
+	@Override
+	public void close()
+	{
+		qu.close();
+		gridOpen.close();
+	}
+
+	// Flat site index of (i, j)
+	private long site(int i, int j)
+	{
+		return (long) (i - 1) * size + (j - 1);
+	}
+
+	// Checks open bit of flat site index
+	private boolean isOpenSite(long index)
+	{
+		return (gridOpen.getByte(index >>> 3) & (1 << (index & 7))) != 0;
+	}
+
+	/** Check if (i, j) is valid grid cell
+	 * @param i Grid row
+	 * @param j Grid column
+	 */
+	private void exceptionCheck(int i, int j)
+	{
+		// Exception catch
+		if (i <= 0 || i > size)
+			throw new IndexOutOfBoundsException("Invalid value for i (" + i + ").");
+		if (j <= 0 || j > size)
+			throw new IndexOutOfBoundsException("Invalid value for j (" + j + ").");
+	}
+}
\ No newline at end of file
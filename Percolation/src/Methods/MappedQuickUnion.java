@@ -0,0 +1,167 @@
+package Methods;
+import java.io.Closeable;
+import java.nio.file.Path;
+
+/**
+ * Creates quick union object whose parent and rank arrays live off heap in a memory mapped temp file.
+ * Nodes are indexed with long, so the number of nodes is only bounded by disk and address space.
+ * Parent is stored as parent + 1 so the zero filled file starts as n single node trees with no
+ * initialization pass. Each root also carries two tag bits that are combined on union.
+ */
+public class MappedQuickUnion implements Closeable {
+
+	// Tag bits carried by roots, stored above the rank bits
+	public static final int TAG_A = 1;
+	public static final int TAG_B = 2;
+	private static final int RANK_MASK = 0x3F;
+	private static final int TAG_SHIFT = 6;
+
+	// Parent (+1, 0 if root) as long per node, rank and tags as byte per node
+	private MappedRegion parent;
+	private MappedRegion meta;
+
+	// Number of nodes
+	private long n;
+
+	/**
+	 * Initializes quick union object to size n in system temp directory
+	 * @param n Number of objects in quick union
+	 */
+	public MappedQuickUnion(long n)
+	{
+		this(n, null);
+	}
+
+	/**
+	 * Initializes quick union object to size n
+	 * @param n Number of objects in quick union
+	 * @param dir Directory for backing file (null for system temp directory)
+	 */
+	public MappedQuickUnion(long n, Path dir)
+	{
+		// Checks if valid input
+		if (n <= 0 || n > Long.MAX_VALUE / 8)
+			throw new IllegalArgumentException("Invalid input for n.");
+
+		this.n = n;
+		parent = new MappedRegion(dir, n * 8);
+		try {
+			meta = new MappedRegion(dir, n);
+		} catch (RuntimeException error) {
+			parent.close();
+			throw error;
+		}
+	}
+
+	/** Provides root of node, halving path on the way
+	 * @param i Initial node
+	 * @return long
+	 */
+	public long root(long i)
+	{
+		// Checks if valid input
+		exceptionCheck(i);
+
+		long p;
+		while ((p = parent.getLong(i << 3)) != 0)
+		{
+			// Point node at its grandparent
+			long gp = parent.getLong((p - 1) << 3);
+			if (gp != 0)
+			{
+				parent.putLong(i << 3, gp);
+				p = gp;
+			}
+			i = p - 1;
+		}
+		return i;
+	}
+
+	/** Checks if two nodes are connected
+	 * @param p Node 1
+	 * @param q Node 2
+	 * @return boolean
+	 */
+	public boolean connected(long p, long q)
+	{
+		return root(p) == root(q);
+	}
+
+	/** Connects two nodes by making root of lower rank tree point to root of higher rank tree
+	 * @param p Node 1
+	 * @param q Node 2
+	 * @return long Root of combined tree
+	 */
+	public long union(long p, long q)
+	{
+		// Finds root
+		long i = root(p);
+		long j = root(q);
+
+		// Already share root
+		if (i == j)
+			return i;
+
+		// Link by rank, new root keeps tags of both
+		int mi = meta.getByte(i);
+		int mj = meta.getByte(j);
+		int tags = (mi | mj) & ~RANK_MASK;
+		int ri = mi & RANK_MASK;
+		int rj = mj & RANK_MASK;
+		if (ri < rj)
+		{
+			parent.putLong(i << 3, j + 1);
+			meta.putByte(j, (byte) (rj | tags));
+			return j;
+		}
+		parent.putLong(j << 3, i + 1);
+		meta.putByte(i, (byte) ((ri == rj ? ri + 1: ri) | tags));
+		return i;
+	}
+
+	/** Adds tag bits to tree of node
+	 * @param i Node
+	 * @param tag TAG_A, TAG_B or both
+	 */
+	public void tag(long i, int tag)
+	{
+		long r = root(i);
+		meta.putByte(r, (byte) (meta.getByte(r) | (tag << TAG_SHIFT)));
+	}
+
+	/** Returns tag bits of tree of node
+	 * @param i Node
+	 * @return int
+	 */
+	public int tags(long i)
+	{
+		return (meta.getByte(root(i)) & 0xFF) >>> TAG_SHIFT;
+	}
+
+	/** Returns number of nodes
+	 * @return long
+	 */
+	public long size()
+	{
+		return n;
+	}
+
+	/** Releases and deletes backing files
+	 */
+	@Override
+	public void close()
+	{
+		if (parent != null)
+			parent.close();
+		if (meta != null)
+			meta.close();
+	}
+
+	// Exception check
+	private void exceptionCheck(long i)
+	{
+		// Exception catch
+		if (i < 0 || i >= n)
+			throw new IndexOutOfBoundsException("Invalid value for i (" + i + ").");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package Methods;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Zero filled block of memory mapped from a temporary file, addressed by long byte offset.
+ * File is mapped in 1 GB chunks since a single MappedByteBuffer is limited to 2 GB.
+ * The file is sparse, so untouched parts cost neither heap nor disk.
+ */
+class MappedRegion implements Closeable {
+
+	// Bytes per mapped chunk (multiple of 8 so longs never straddle chunks)
+	private static final int CHUNK_BITS = 30;
+	private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+	// Backing file and its mapped chunks
+	private Path file;
+	private RandomAccessFile raf;
+	private MappedByteBuffer[] chunks;
+
+	/**
+	 * Maps new zero filled temporary file of given length
+	 * @param dir Directory for temporary file (null for system default)
+	 * @param bytes Length of region in bytes
+	 */
+	MappedRegion(Path dir, long bytes)
+	{
+		// Exception catch
+		if (bytes <= 0)
+			throw new IllegalArgumentException("Invalid value for bytes.");
+
+		try {
+			file = (dir == null ? Files.createTempFile("percolation", ".map"): Files.createTempFile(dir, "percolation", ".map"));
+			raf = new RandomAccessFile(file.toFile(), "rw");
+			raf.setLength(bytes);
+
+			// Map file one chunk at a time
+			FileChannel channel = raf.getChannel();
+			chunks = new MappedByteBuffer[(int) ((bytes + CHUNK_MASK) >>> CHUNK_BITS)];
+			for (int c=0; c<chunks.length; c++)
+			{
+				long start = (long) c << CHUNK_BITS;
+				chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(CHUNK_MASK + 1, bytes - start));
+			}
+		} catch (IOException error) {
+			close();
+			throw new UncheckedIOException("Could not map region of " + bytes + " bytes.", error);
+		}
+	}
+
+	/** Returns long at byte offset (offset must be multiple of 8)
+	 * @param offset Byte offset
+	 * @return long
+	 */
+	long getLong(long offset)
+	{
+		return chunks[(int) (offset >>> CHUNK_BITS)].getLong((int) (offset & CHUNK_MASK));
+	}
+
+	/** Writes long at byte offset (offset must be multiple of 8)
+	 * @param offset Byte offset
+	 * @param value Value to write
+	 */
+	void putLong(long offset, long value)
+	{
+		chunks[(int) (offset >>> CHUNK_BITS)].putLong((int) (offset & CHUNK_MASK), value);
+	}
+
+	/** Returns byte at byte offset
+	 * @param offset Byte offset
+	 * @return byte
+	 */
+	byte getByte(long offset)
+	{
+		return chunks[(int) (offset >>> CHUNK_BITS)].get((int) (offset & CHUNK_MASK));
+	}
+
+	/** Writes byte at byte offset
+	 * @param offset Byte offset
+	 * @param value Value to write
+	 */
+	void putByte(long offset, byte value)
+	{
+		chunks[(int) (offset >>> CHUNK_BITS)].put((int) (offset & CHUNK_MASK), value);
+	}
+
+	/** Closes and deletes backing file
+	 */
+	@Override
+	public void close()
+	{
+		// File is only marked delete on exit if it cannot be removed now (e.g. while still mapped on Windows)
+		try {
+			if (raf != null)
+				raf.close();
+			if (file != null)
+				Files.deleteIfExists(file);
+		} catch (IOException error) {
+			file.toFile().deleteOnExit();
+		} finally {
+			chunks = null;
+			raf = null;
+			file = null;
+		}
+	}
+}
\ No newline at end of file
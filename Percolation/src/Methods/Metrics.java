@@ -0,0 +1,175 @@
+package Methods;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in counters of where simulation time goes: trials per second, trial time histogram, rejected random draws,
+ * QuickUnion path lengths, and memory per grid.
+ * Off unless the JVM is started with -Dpercolation.metrics=true. ENABLED is a static final flag, so when it is
+ * false the JIT removes every "if (Metrics.ENABLED)" block from the hot paths and metrics cost nothing.
+ * When on, counters are published as JMX MBean "Methods:type=Metrics", and with
+ * -Dpercolation.metrics.log=seconds a summary line is written to standard error at that interval.
+ */
+public final class Metrics implements MetricsMBean {
+
+	/** Whether metrics are collected (system property percolation.metrics) */
+	public static final boolean ENABLED = Boolean.getBoolean("percolation.metrics");
+
+	// Only instance, registered with JMX
+	private static final Metrics metrics = new Metrics();
+
+	// Counters
+	private final long start = System.nanoTime();
+	private final LatencyHistogram trialNanos = new LatencyHistogram();
+	private final LongAdder rejections = new LongAdder();
+	private final LongAdder finds = new LongAdder();
+	private final LongAdder pathLength = new LongAdder();
+	private final LongAdder grids = new LongAdder();
+	private final AtomicLong gridBytes = new AtomicLong();
+
+	// Register with JMX and start log line when enabled
+	static {
+		if (ENABLED)
+		{
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName("Methods:type=Metrics"));
+			} catch (Exception error) {
+				System.err.println("Could not register metrics MBean: " + error.getMessage());
+			}
+			long seconds = Long.getLong("percolation.metrics.log", 0);
+			if (seconds > 0)
+			{
+				ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(task -> {
+					Thread thread = new Thread(task, "percolation-metrics");
+					thread.setDaemon(true);
+					return thread;
+				});
+				logger.scheduleAtFixedRate(() -> System.err.println(metrics.summary()), seconds, seconds, TimeUnit.SECONDS);
+			}
+		}
+	}
+
+	// No instances outside this class
+	private Metrics()
+	{
+	}
+
+	/** Returns metrics (all zero unless enabled)
+	 * @return Metrics
+	 */
+	public static Metrics get()
+	{
+		return metrics;
+	}
+
+	/** Records finished trial (call only if ENABLED)
+	 * @param nanos Time of trial in nanoseconds
+	 */
+	static void trialDone(long nanos)
+	{
+		metrics.trialNanos.record(nanos);
+	}
+
+	/** Records rejected random draw (call only if ENABLED)
+	 */
+	static void rejection()
+	{
+		metrics.rejections.increment();
+	}
+
+	/** Records find (call only if ENABLED)
+	 * @param steps Parent links followed
+	 */
+	static void find(int steps)
+	{
+		metrics.finds.increment();
+		metrics.pathLength.add(steps);
+	}
+
+	/** Records new grid (call only if ENABLED)
+	 * @param bytes Estimated heap bytes of grid arrays
+	 */
+	static void gridCreated(long bytes)
+	{
+		metrics.grids.increment();
+		metrics.gridBytes.set(bytes);
+	}
+
+	/** Returns one line summary of all counters
+	 * @return String
+	 */
+	public String summary()
+	{
+		return String.format(Locale.ROOT, "metrics: trials=%d trials/s=%.2f trial ms mean=%.3f p50=%.3f p90=%.3f p99=%.3f max=%.3f "
+				+ "rejections=%d finds=%d path=%.3f grids=%d grid bytes=%d", getTrials(), getTrialsPerSecond(), getTrialMillisMean(),
+				getTrialMillisP50(), getTrialMillisP90(), getTrialMillisP99(), getTrialMillisMax(), getRejections(), getFinds(),
+				getMeanPathLength(), getGrids(), getGridBytes());
+	}
+
+	public long getTrials()
+	{
+		return trialNanos.count();
+	}
+
+	public double getTrialsPerSecond()
+	{
+		return getTrials() / Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+	}
+
+	public double getTrialMillisMean()
+	{
+		return trialNanos.mean() / 1e6;
+	}
+
+	public double getTrialMillisP50()
+	{
+		return trialNanos.percentile(0.5) / 1e6;
+	}
+
+	public double getTrialMillisP90()
+	{
+		return trialNanos.percentile(0.9) / 1e6;
+	}
+
+	public double getTrialMillisP99()
+	{
+		return trialNanos.percentile(0.99) / 1e6;
+	}
+
+	public double getTrialMillisMax()
+	{
+		return trialNanos.max() / 1e6;
+	}
+
+	public long getRejections()
+	{
+		return rejections.sum();
+	}
+
+	public long getFinds()
+	{
+		return finds.sum();
+	}
+
+	public double getMeanPathLength()
+	{
+		long count = finds.sum();
+		return (count == 0 ? 0: pathLength.sum() / (double) count);
+	}
+
+	public long getGridBytes()
+	{
+		return gridBytes.get();
+	}
+
+	public long getGrids()
+	{
+		return grids.sum();
+	}
+}
\ No newline at end of file
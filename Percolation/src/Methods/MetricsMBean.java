@@ -0,0 +1,43 @@
+package Methods;
+
+/**
+ * JMX view of Metrics, registered as "Methods:type=Metrics" when metrics are enabled.
+ */
+public interface MetricsMBean {
+
+	/** @return long Number of finished trials */
+	long getTrials();
+
+	/** @return double Trials finished per second since start */
+	double getTrialsPerSecond();
+
+	/** @return double Mean trial time in milliseconds */
+	double getTrialMillisMean();
+
+	/** @return double Median trial time in milliseconds */
+	double getTrialMillisP50();
+
+	/** @return double 90th percentile trial time in milliseconds */
+	double getTrialMillisP90();
+
+	/** @return double 99th percentile trial time in milliseconds */
+	double getTrialMillisP99();
+
+	/** @return double Longest trial time in milliseconds */
+	double getTrialMillisMax();
+
+	/** @return long Random draws rejected because site was already open */
+	long getRejections();
+
+	/** @return long Number of QuickUnion finds */
+	long getFinds();
+
+	/** @return double Mean number of parent links followed per find */
+	double getMeanPathLength();
+
+	/** @return long Estimated heap bytes of last grid created */
+	long getGridBytes();
+
+	/** @return long Number of grids created (reset grids are not counted again) */
+	long getGrids();
+}
\ No newline at end of file
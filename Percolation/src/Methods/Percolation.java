@@ -1,57 +1,224 @@
 package Methods;
-import java.awt.Color;
-import java.awt.Graphics;
-import java.util.Random;
-
-import javax.swing.JComponent;
-import static Others.Constants.*;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
 
 /**
  * Creates percolation object, which is an n x n grid of points. 
  * Allows user to open specified grid, open random grid, check if grid has percolated 
+ * Pure compute model with no AWT or Swing dependency, drawn on screen by GUI.PercRenderer.
+ * Neighbors come from a Lattice (square by default), so the same code runs triangular, hexagonal,
+ * cubic and periodic lattices. Cell (i, j) is site j of row (layer) i of the lattice.
+ * Sites are joined by any UnionFind (QuickUnion by default).
+ * Cluster statistics (number of clusters, cluster sizes) are opt-in, as they cost extra union find work on every open.
  */
-@SuppressWarnings("serial")
-public class Percolation extends JComponent {
+public class Percolation {
+	
+	// Quick Union object variable for easy reference (virtual top 0, virtual bottom n*n+1)
+	private UnionFind qu;
+	
+	// Second quick union without virtual bottom, so isFull is not fooled by backwash.
+	// Without cluster tracking first row joins virtual top 0. With cluster tracking it has no virtual nodes,
+	// so each tree is one cluster, and roots of clusters touching top row are marked in topRoots instead.
+	private UnionFind fullQu;
+	private BitGrid topRoots;
 	
-	// Controller variable
-	private Controller controller;
+	// Cluster analytics kept up to date as sites open, only if tracking clusters: number of clusters,
+	// largest cluster, number of clusters of each size, and sum of squared cluster sizes
+	private boolean clusters;
+	private int numClusters;
+	private int largestCluster;
+	private int[] clusterSizeCount;
+	private long sumSquaredSizes;
 	
-	// Quick Union object variable for easy reference
-	private QuickUnion qu;
+	// Index of virtual bottom node
+	private int bottom;
 	
-	// List to keep track of open and closed sites
-	private int[] gridOpen;
+	// Bit per site to keep track of open (1) and closed (0) sites, site index k stored at bit k - 1.
+	// Padded with one row holding the sentinel site (number of sites + 1), which is never opened (see sentinelMasks).
+	private BitGrid gridOpen;
 	
-	// Keeps size (n x n) of system for easy reference
+	// Keeps size (n x n) of system for easy reference, and number of sites per row
 	private int size;
+	private int columns;
+	
+	// Lattice, and its neighbor offsets (neighbor d of site k is (k & keep[c + d]) + offsets[c + d], c = rowBase[i] + colBase[j]),
+	// keep being all ones for a real neighbor and zero for a missing one, whose offset is the sentinel site
+	private Lattice lattice;
+	private int degree;
+	private int[] rowBase;
+	private int[] colBase;
+	private int[] offsets;
+	private int[] keep;
 	
 	// Holds location of last opened cell
 	private int[] last;
+	
+	// Closed sites packed at front of list, with position of each site in list (swap-remove sampling).
+	// Opened sites are swapped to the back, so the back of the list holds open sites in reverse opening order.
+	private int[] closedSites;
+	private int[] closedPos;
+	private int numClosed;
+	
+	// Random number generator used by openRandom()
+	private RandomGenerator rand;
 
 	/**
 	 * Create n-by-n grid, with all sites initially blocked
-	 * @param controller Controller variable
 	 * @param n Size of grid (n x n)
 	 */
-	public Percolation(Controller controller, int n)
+	public Percolation(int n)
 	{
-		// Controller variable
-		this.controller = controller;
-		
-		// Exception catch
-		if (n <= 0)
-			throw new IllegalArgumentException("Invalid value for n.");
+		this(n, new SplittableRandom());
+	}
+	
+	/**
+	 * Create n-by-n grid, with all sites initially blocked
+	 * @param n Size of grid (n x n)
+	 * @param rand Random number generator used by openRandom()
+	 */
+	public Percolation(int n, RandomGenerator rand)
+	{
+		this(Lattice.square(n), rand);
+	}
+	
+	/**
+	 * Create lattice, with all sites initially blocked
+	 * @param lattice Lattice of sites
+	 */
+	public Percolation(Lattice lattice)
+	{
+		this(lattice, new SplittableRandom());
+	}
+	
+	/**
+	 * Create lattice, with all sites initially blocked
+	 * @param lattice Lattice of sites
+	 * @param rand Random number generator used by openRandom()
+	 */
+	public Percolation(Lattice lattice, RandomGenerator rand)
+	{
+		this(lattice, rand, QuickUnion::new, false);
+	}
+	
+	/**
+	 * Create lattice, with all sites initially blocked
+	 * @param lattice Lattice of sites
+	 * @param rand Random number generator used by openRandom()
+	 * @param clusters Whether to track cluster statistics (numberOfClusters, clusterSize, ...)
+	 */
+	public Percolation(Lattice lattice, RandomGenerator rand, boolean clusters)
+	{
+		this(lattice, rand, QuickUnion::new, clusters);
+	}
+	
+	/**
+	 * Create lattice, with all sites initially blocked, joining sites with chosen union find
+	 * @param lattice Lattice of sites
+	 * @param rand Random number generator used by openRandom()
+	 * @param unionFind Creates union find of given number of nodes (called twice), e.g. QuickUnion::new
+	 */
+	public Percolation(Lattice lattice, RandomGenerator rand, IntFunction<UnionFind> unionFind)
+	{
+		this(lattice, rand, unionFind, false);
+	}
+	
+	/**
+	 * Create lattice, with all sites initially blocked, joining sites with chosen union find
+	 * @param lattice Lattice of sites
+	 * @param rand Random number generator used by openRandom()
+	 * @param unionFind Creates union find of given number of nodes (called twice), e.g. QuickUnion::new
+	 * @param clusters Whether to track cluster statistics (numberOfClusters, clusterSize, ...)
+	 */
+	public Percolation(Lattice lattice, RandomGenerator rand, IntFunction<UnionFind> unionFind, boolean clusters)
+	{
+		// Lattice neighbor offsets
+		this.lattice = lattice;
+		degree = lattice.getDegree();
+		rowBase = lattice.rowBase;
+		colBase = lattice.colBase;
+		offsets = lattice.offsets.clone();
+		keep = sentinelMasks(lattice, offsets);
 		
-		// Creates quick union (+1 so grid starts at 1 and can connect top to 0)
-		size = n;
-		qu = new QuickUnion(n * n + 1);
+		// Creates quick union (+1 so grid starts at 1 and can connect top to 0, +1 for bottom)
+		size = lattice.getRows();
+		columns = lattice.getColumns();
+		int sites = lattice.getSites();
+		bottom = sites + 1;
+		qu = unionFind.apply(sites + 2);
+		fullQu = unionFind.apply(sites + 1);
+		this.clusters = clusters;
+		if (clusters)
+		{
+			topRoots = new BitGrid(size, columns);
+			clusterSizeCount = new int[sites + 1];
+		}
 		last = new int[2];
 
-		// Creates list for open or closed (0 open, 1 closed)
-		gridOpen = new int[n * n + 1];
-		gridOpen[0] = 0;
-		for (int i=1; i<gridOpen.length; i++)
-			gridOpen[i] = 1;
+		// Every site starts closed, sentinel site (in padding row) stays closed
+		gridOpen = new BitGrid(size + 1, columns);
+		closedSites = new int[sites];
+		closedPos = new int[sites + 1];
+		resetClosed();
+		this.rand = rand;
+
+		// Two union finds (two ints per node), bits of grid and padding row, closed list, and top roots and histogram if tracking clusters
+		if (Metrics.ENABLED)
+			Metrics.gridCreated(16L * sites + ((long) sites + columns + 7) / 8 + 8L * sites + (clusters ? ((long) sites + 7) / 8 + 4L * sites: 0));
+	}
+	
+	/** Points every missing neighbor (offset 0, the site itself) at the one sentinel site after the last site,
+	 * which is always closed, so the neighbor loop never joins a site to itself and needs no border branch
+	 * @param lattice Lattice of sites
+	 * @param offsets Copy of lattice offsets, missing neighbors replaced by sentinel site
+	 * @return int[] Masks kept of site index per offset (all ones, or zero for a missing neighbor)
+	 */
+	private static int[] sentinelMasks(Lattice lattice, int[] offsets)
+	{
+		int[] keep = new int[offsets.length];
+		for (int k=0; k<offsets.length; k++)
+		{
+			keep[k] = (offsets[k] == 0 ? 0: -1);
+			if (offsets[k] == 0)
+				offsets[k] = lattice.getSites() + 1;
+		}
+		return keep;
+	}
+	
+	/** Closes all sites again, as if newly created, reusing all arrays so repeated trials allocate nothing.
+	 * A reset grid opens the same sites as a new one for the same random stream.
+	 */
+	public void reset()
+	{
+		qu.reset();
+		fullQu.reset();
+		gridOpen.clear();
+		resetClosed();
+		
+		// Cluster analytics (histogram only used up to largest cluster)
+		if (clusters)
+		{
+			topRoots.clear();
+			Arrays.fill(clusterSizeCount, 0, largestCluster + 1, 0);
+			numClusters = 0;
+			largestCluster = 0;
+			sumSquaredSizes = 0;
+		}
+		last[0] = 0;
+		last[1] = 0;
+	}
+	
+	/** Puts every site back in closed list, in site order
+	 */
+	private void resetClosed()
+	{
+		numClosed = closedSites.length;
+		for (int k=0; k<numClosed; k++)
+		{
+			closedSites[k] = k + 1;
+			closedPos[k + 1] = k;
+		}
 	}
 	
 	/** Open site (row i, column j) if closed
@@ -61,47 +228,186 @@ public class Percolation extends JComponent {
 	public void open(int i, int j)
 	{
 		exceptionCheck(i, j);
-		int index = (i - 1) * size + j;
-		gridOpen[index] = 0;
-		
-		// Top neighbor
-		if (i == 1)
-			qu.union(index, 0);
-		if (i - 1 > 0 && isOpen(i - 1, j))
-			qu.union(index, index - size);
-		
-		// Bottom neighbor
-		if (i + 1 <= size && isOpen(i + 1, j))
-			qu.union(index, index + size);
-		
-		// Right neighbor
-		if (j + 1 <= size && isOpen(i, j + 1))
-			qu.union(index, index + 1);
-		
-		// Left neighbor
-		if (j - 1 > 0 && isOpen(i, j - 1))
-			qu.union(index, index - 1);
+		openIndex((i - 1) * columns + j);
+	}
+	
+	/** Opens site by index ((i - 1) * columns + j) if closed, without range checks.
+	 * For callers inside the engine whose indices are valid by construction (closed list, checked batches).
+	 * Neighbors come from lattice offsets, where a missing neighbor is a sentinel site that is never open,
+	 * so there are no border branches, and union finds are used without their range checks.
+	 * @param index Site index (1 to number of sites)
+	 */
+	void openIndex(int index)
+	{
+		int i = (index - 1) / columns + 1;
+		int j = index - (i - 1) * columns;
 		
 		// Holds location of last opened cell
 		last[0] = i;
 		last[1] = j;
+		if (gridOpen.get(index - 1))
+			return;
+		removeClosed(index);
+		gridOpen.set(index - 1);
+		
+		// New cluster of one site
+		if (clusters)
+		{
+			numClusters++;
+			clusterSizeCount[1]++;
+			sumSquaredSizes++;
+			largestCluster = Math.max(largestCluster, 1);
+		}
+		
+		// Virtual top (marked as top root if tracking clusters), and virtual bottom (only joined in qu)
+		if (i == 1)
+		{
+			qu.unionUnchecked(index, 0);
+			if (clusters)
+				topRoots.set(index - 1);
+			else
+				fullQu.unionUnchecked(index, 0);
+		}
+		if (i == size)
+			qu.unionUnchecked(index, bottom);
+		
+		// Open neighbors, a missing neighbor is the closed sentinel site
+		int start = rowBase[i] + colBase[j];
+		for (int d=0; d<degree; d++)
+		{
+			int other = (index & keep[start + d]) + offsets[start + d];
+			if (gridOpen.get(other - 1))
+				union(index, other);
+		}
 	}
 	
 	/** Opens random closed cell in grid
 	 */
 	public void openRandom()
 	{
-		Random rand = new Random();
-		int i = rand.nextInt(size) + 1;
-		int j = rand.nextInt(size) + 1;
-
-		// Open if closed
-		while(isOpen(i, j))
+		openRandom(rand);
+	}
+	
+	/** Opens random closed cell in grid, drawing from the given generator.
+	 * Picks uniformly from the list of closed sites, so there are no retries. Does nothing if no site is closed.
+	 * @param rand Random number generator (seeded by caller for reproducible runs)
+	 */
+	public void openRandom(RandomGenerator rand)
+	{
+		if (numClosed == 0)
+			return;
+		
+		openIndex(closedSites[rand.nextInt(numClosed)]);
+	}
+	
+	/** Opens k random closed cells in grid, or as many as are still closed
+	 * @param k Number of cells to open
+	 * @return int Number of cells opened
+	 */
+	public int openRandom(int k)
+	{
+		return openRandom(k, rand);
+	}
+	
+	/** Opens k random closed cells in grid, or as many as are still closed
+	 * @param k Number of cells to open
+	 * @param rand Random number generator
+	 * @return int Number of cells opened
+	 */
+	public int openRandom(int k, RandomGenerator rand)
+	{
+		// Exception catch
+		if (k < 0)
+			throw new IllegalArgumentException("Invalid value for k.");
+		
+		int opened = Math.min(k, numClosed);
+		for (int c=0; c<opened; c++)
 		{
-			i = rand.nextInt(size) + 1;
-			j = rand.nextInt(size) + 1;
+			openIndex(closedSites[rand.nextInt(numClosed)]);
 		}
-		open(i, j);
+		return opened;
+	}
+	
+	/** Opens all given sites
+	 * @param sites Site indices ((i - 1) * columns + j), as returned by getOpenedSite
+	 */
+	public void open(int[] sites)
+	{
+		// Check whole batch first so a bad index leaves grid unchanged
+		for (int site:sites)
+			if (site <= 0 || site > size * columns)
+				throw new IndexOutOfBoundsException("Invalid value for site (" + site + ").");
+		
+		for (int site:sites)
+			openIndex(site);
+	}
+	
+	/** Opens random closed cells until system percolates
+	 * @return int Number of open sites when system first percolated
+	 */
+	public int runToPercolation()
+	{
+		return runToPercolation(rand);
+	}
+	
+	/** Opens random closed cells until system percolates.
+	 * percolates() is a single union find check, so it is checked after every open to get the exact count.
+	 * @param rand Random number generator
+	 * @return int Number of open sites when system first percolated
+	 */
+	public int runToPercolation(RandomGenerator rand)
+	{
+		while (!percolates())
+			openIndex(closedSites[rand.nextInt(numClosed)]);
+		return numberOfOpenSites();
+	}
+	
+	/** Removes site from closed list by swapping it with last closed site
+	 * @param index Site index
+	 */
+	private void removeClosed(int index)
+	{
+		int pos = closedPos[index];
+		int moved = closedSites[--numClosed];
+		closedSites[pos] = moved;
+		closedPos[moved] = pos;
+		closedSites[numClosed] = index;
+		closedPos[index] = numClosed;
+	}
+	
+	/** Returns site index ((i - 1) * columns + j) of k-th opened site, so viewers can catch up on changes
+	 * @param k Opening order (0 for first site opened, up to numberOfOpenSites() - 1)
+	 * @return int
+	 */
+	public int getOpenedSite(int k)
+	{
+		if (k < 0 || k >= numberOfOpenSites())
+			throw new IndexOutOfBoundsException("Invalid value for k (" + k + ").");
+		return closedSites[size * columns - 1 - k];
+	}
+	
+	/** Sets random number generator used by openRandom()
+	 * @param rand Random number generator (e.g. SplittableRandom, or RandomGenerator.of("Xoshiro256PlusPlus"))
+	 */
+	public void setRandom(RandomGenerator rand)
+	{
+		this.rand = rand;
+	}
+	
+	/** Returns copy of open sites as bit grid (site (i, j) at row i - 1, column j - 1)
+	 * @return BitGrid
+	 */
+	public BitGrid getOpenSites()
+	{
+		return gridOpen.copyRows(size);
+	}
+	
+	/** Returns number of open sites
+	 * @return int
+	 */
+	public int numberOfOpenSites()
+	{
+		return size * columns - numClosed;
 	}
 	
 	/** Checks if cell (i, j) is open (connected to top)
@@ -112,7 +418,7 @@ public class Percolation extends JComponent {
 	public boolean isOpen(int i, int j)
 	{
 		exceptionCheck(i, j);
-		return (gridOpen[(i - 1) * size + j] == 0 ? true : false);
+		return gridOpen.get((i - 1) * columns + j - 1);
 	}
 	
 	/** Checks if cell (i, j) percolates (top reaches bottom)
@@ -120,22 +426,116 @@ public class Percolation extends JComponent {
 	 * @param j Column j
 	 * @return boolean
 	 */
-	private boolean isFull(int i, int j)
+	public boolean isFull(int i, int j)
 	{
 		exceptionCheck(i, j);
-		return qu.connected((i - 1) * size + j, 0);
+		int index = (i - 1) * columns + j;
+		if (!gridOpen.get(index - 1))
+			return false;
+		return (clusters ? topRoots.get(fullQu.findUnchecked(index) - 1): fullQu.findUnchecked(index) == fullQu.findUnchecked(0));
 	}
 	
-	/** Checks if system percolates (top reaches bottom)
+	/** Checks if system percolates (top reaches bottom) in constant time using virtual bottom
 	 * @return boolean
 	 */
 	public boolean percolates()
 	{
-		for (int j=1; j<=size; j++)
-			if (isFull(size, j))
-				return true;
+		return qu.findUnchecked(0) == qu.findUnchecked(bottom);
+	}
+	
+	/** Connects two open sites in both quick unions, merging their clusters if tracking clusters
+	 * @param p Site 1
+	 * @param q Site 2
+	 */
+	private void union(int p, int q)
+	{
+		if (!clusters)
+		{
+			qu.unionUnchecked(p, q);
+			fullQu.unionUnchecked(p, q);
+			return;
+		}
+		
+		// Already same cluster, so qu joins them too
+		int rp = fullQu.findUnchecked(p);
+		int rq = fullQu.findUnchecked(q);
+		if (rp == rq)
+			return;
+		qu.unionUnchecked(p, q);
+		
+		// Merge clusters by linking the roots just found, new root touches top if either did
+		int a = fullQu.sizeUnchecked(rp);
+		int b = fullQu.sizeUnchecked(rq);
+		int root = fullQu.linkUnchecked(rp, rq);
+		if (topRoots.get(rp - 1) || topRoots.get(rq - 1))
+			topRoots.set(root - 1);
 		
-		return false;
+		// Update cluster analytics
+		numClusters--;
+		clusterSizeCount[a]--;
+		clusterSizeCount[b]--;
+		clusterSizeCount[a + b]++;
+		sumSquaredSizes += 2L * a * b;
+		largestCluster = Math.max(largestCluster, a + b);
+	}
+	
+	/** Returns number of clusters of open sites
+	 * @return int
+	 */
+	public int numberOfClusters()
+	{
+		clusterCheck();
+		return numClusters;
+	}
+	
+	/** Returns number of sites in largest cluster
+	 * @return int
+	 */
+	public int largestClusterSize()
+	{
+		clusterCheck();
+		return largestCluster;
+	}
+	
+	/** Returns number of sites in cluster of cell (i, j), 0 if closed
+	 * @param i Row i
+	 * @param j Column j
+	 * @return int
+	 */
+	public int clusterSize(int i, int j)
+	{
+		exceptionCheck(i, j);
+		clusterCheck();
+		int index = (i - 1) * columns + j;
+		return (gridOpen.get(index - 1) ? fullQu.sizeUnchecked(index): 0);
+	}
+	
+	/** Returns cluster size histogram, entry s being number of clusters with s sites (up to largest cluster)
+	 * @return int[]
+	 */
+	public int[] clusterSizeHistogram()
+	{
+		clusterCheck();
+		return Arrays.copyOf(clusterSizeCount, largestCluster + 1);
+	}
+	
+	/** Returns mean number of sites per cluster (0 if no site open)
+	 * @return double
+	 */
+	public double meanClusterSize()
+	{
+		clusterCheck();
+		return (numClusters == 0 ? 0: numberOfOpenSites() / (double) numClusters);
+	}
+	
+	/** Returns mean size of cluster that a random open site belongs to, sum(s^2) / sum(s) (0 if no site open)
+	 * @return double
+	 */
+	public double weightedMeanClusterSize()
+	{
+		clusterCheck();
+		int open = numberOfOpenSites();
+		return (open == 0 ? 0: sumSquaredSizes / (double) open);
 	}
 
 	/** Check if (i, j) is valid grid cell
@@ -147,54 +547,47 @@ public class Percolation extends JComponent {
 		// Exception catch
 		if (i <= 0 || i > size)
 			throw new IndexOutOfBoundsException("Invalid value for i (" + i + ").");
-		if (j <= 0 || j > size)
+		if (j <= 0 || j > columns)
 			throw new IndexOutOfBoundsException("Invalid value for j (" + j + ").");
 	}
 	
-	// Paint component method
-	// White if open and not full, black if closed, blue if open and full, red if cell that percolates
-	public void paintComponent(Graphics g)
+	// Checks that cluster statistics are tracked
+	private void clusterCheck()
 	{
-		// Initialize variables
-		super.paintComponent(g);
-		Color c = Color.BLACK;
-		
-		// Size of grid  and cells based on current frame size
-		double width = controller.getFrameSize().getWidth();
-		double height = controller.getFrameSize().getHeight();
-		double min = (width < height? width: height);
-		int rect = (int) min / (size + gridWeight);
-		
-		// Size of space in between grid
-		int space = (rect / 4 > 1 ? rect / 4: 1);
-
-		// Iterate through grid values
-		for (int i=1; i<=size; i++)
-		{
-			for (int j=1; j<=size; j++)
-			{
-				// Set rectangle color
-				if (isOpen(i, j))
-					c = Color.WHITE;
-				else if (!isOpen(i, j))
-					c = Color.BLACK;
-				if (isFull(i, j) && isOpen(i, j))
-					c = Color.BLUE;
-				if ((i == last[0] && j == last[1]) && percolates())
-					c = Color.RED;
-
-				// Draw rectangle of specified color
-				g.setColor(c);
-				g.fillRect(j * rect + buttonSize, i * rect + buttonSize, rect - space, rect - space);
-			}
-		}
+		// Exception catch
+		if (!clusters)
+			throw new IllegalStateException("Cluster statistics not tracked (create with clusters = true).");
 	}
 	
-	/** Returns current size of percolation grid
+	/** Checks if cluster statistics are tracked
+	 * @return boolean
+	 */
+	public boolean isTrackingClusters()
+	{
+		return clusters;
+	}
+	
+	/** Returns current size of percolation grid (number of rows of lattice)
 	 * @return int
 	 */
 	public int getGridSize()
 	{
 		return size;
 	}
+	
+	/** Returns lattice of sites
+	 * @return Lattice
+	 */
+	public Lattice getLattice()
+	{
+		return lattice;
+	}
+	
+	/** Returns location of last opened cell as {row, column}, or {0, 0} if none opened
+	 * @return int[]
+	 */
+	public int[] getLastOpened()
+	{
+		return new int[] {last[0], last[1]};
+	}
 }
\ No newline at end of file
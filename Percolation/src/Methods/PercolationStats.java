@@ -1,58 +1,520 @@
 package Methods;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  *  PercolationStats inputs size of grid and number of trials and iterates through all percolations.
  *  Outputs mean, standard deviation, and 95% confidence interval of percolation threshold.
- *  Percolation threshold is proportion of percolations needed to percolate system. 
+ *  Percolation threshold is proportion of percolations needed to percolate system.
+ *  Trials are independent, so they are spread across a pool of worker threads. Each trial
+ *  draws from its own random stream derived from (seed, trial), so a run is reproducible
+ *  for a given seed and number of workers.
+ *  Thresholds are not stored, each worker keeps running statistics that are merged at the end.
+ *  Each worker reuses one grid for all its trials, resetting it instead of allocating a new one.
+ *  A run can cover any range of trial numbers, so one study can be split across machines.
+ *  Long runs can save their progress to a checkpoint file and resume from it after a crash.
  */
 public class PercolationStats {
 
-	// Percolation object variable
-	private Percolation perc;
-	
-	// Array to hold percolation threshold
-	private double[] percThresh;
-	
+	// Fewest trials before an adaptive run trusts its confidence interval
+	private static final int MIN_ADAPTIVE_TRIALS = 30;
+
+	/**
+	 * Receives result of each trial as it finishes. Called from worker threads, so must be thread safe.
+	 */
+	public interface TrialListener {
+
+		/** Called when a trial finishes
+		 * @param trial Trial number
+		 * @param openSites Number of open sites when system percolated
+		 * @param threshold Proportion of open sites when system percolated
+		 */
+		void trialDone(long trial, int openSites, double threshold);
+	}
+
+	// Running statistics of percolation thresholds
+	private RunningStats stats;
+
+	// Whether adaptive run met its confidence target
+	private boolean targetMet = true;
+
 	/**
 	 * Inputs size of grid and number of trials to perform multiple iterations of percolation.
-	 * @param controller Controller variable
+	 * Uses a random seed and one worker per available processor.
+	 * @param n Size of n x n percolation grid
+	 * @param trials Number of trials to perform.
+	 */
+	public PercolationStats(int n, int trials)
+	{
+		this(n, trials, System.nanoTime(), Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Inputs size of grid and number of trials, running trials on a fixed pool of worker threads.
+	 * @param n Size of n x n percolation grid
+	 * @param trials Number of trials to perform.
+	 * @param seed Seed that all trial random streams are derived from
+	 * @param workers Number of worker threads
+	 */
+	public PercolationStats(int n, int trials, long seed, int workers)
+	{
+		// Exception catch
+		if (workers <= 0)
+			throw new IllegalArgumentException("Invalid value for workers.");
+
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		try {
+			stats = runTrials(new GridPool(Lattice.square(n), false, workers), 0, trials, seed, executor, workers, null, null);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Inputs lattice and number of trials, running trials on a fixed pool of worker threads.
+	 * Threshold is proportion of all sites of lattice open when it percolated.
+	 * @param lattice Lattice of sites, shared by all trials
+	 * @param trials Number of trials to perform.
+	 * @param seed Seed that all trial random streams are derived from
+	 * @param workers Number of worker threads
+	 */
+	public PercolationStats(Lattice lattice, int trials, long seed, int workers)
+	{
+		this(lattice, trials, seed, workers, false);
+	}
+
+	/**
+	 * Inputs lattice and number of trials of site or bond percolation, running trials on a fixed pool of worker threads.
+	 * Bond threshold is proportion of all bonds of lattice open when it percolated (BondPercolation).
+	 * @param lattice Lattice of sites, shared by all trials
+	 * @param trials Number of trials to perform.
+	 * @param seed Seed that all trial random streams are derived from
+	 * @param workers Number of worker threads
+	 * @param bonds Whether bonds open at random instead of sites
+	 */
+	public PercolationStats(Lattice lattice, int trials, long seed, int workers, boolean bonds)
+	{
+		// Exception catch
+		if (workers <= 0)
+			throw new IllegalArgumentException("Invalid value for workers.");
+		if (bonds && lattice.getBonds() == 0)
+			throw new IllegalArgumentException("Lattice has no bonds (" + lattice + ").");
+
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		try {
+			stats = runTrials(new GridPool(lattice, bonds, workers), 0, trials, seed, executor, workers, null, null);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Inputs size of grid and number of trials, running trials on a caller supplied executor.
+	 * The executor is left running so it can be shared between runs.
+	 * @param n Size of n x n percolation grid
+	 * @param trials Number of trials to perform.
+	 * @param seed Seed that all trial random streams are derived from
+	 * @param executor Executor that runs the workers
+	 * @param workers Number of worker tasks to submit to executor
+	 */
+	public PercolationStats(int n, int trials, long seed, ExecutorService executor, int workers)
+	{
+		this(n, trials, seed, executor, workers, null);
+	}
+
+	/**
+	 * Inputs size of grid and number of trials, running trials on a caller supplied executor
+	 * and reporting statistics of all trials finished so far after each trial.
+	 * @param n Size of n x n percolation grid
+	 * @param trials Number of trials to perform.
+	 * @param seed Seed that all trial random streams are derived from
+	 * @param executor Executor that runs the workers
+	 * @param workers Number of worker tasks to submit to executor
+	 * @param progress Receives snapshot of statistics after each trial, called from worker threads one at a time (may be null)
+	 */
+	public PercolationStats(int n, int trials, long seed, ExecutorService executor, int workers, Consumer<RunningStats> progress)
+	{
+		// Exception catch
+		if (workers <= 0)
+			throw new IllegalArgumentException("Invalid value for workers.");
+
+		stats = runTrials(new GridPool(Lattice.square(n), false, workers), 0, trials, seed, executor, workers, progress, null);
+	}
+
+	/**
+	 * Runs trials trialOffset to trialOffset + trials - 1 of a study on a caller supplied executor.
+	 * Trial k gives the same result in any run with the same seed, so ranges run on different
+	 * machines can be merged.
+	 * @param n Size of n x n percolation grid
+	 * @param trialOffset Number of first trial
+	 * @param trials Number of trials to perform.
+	 * @param seed Seed that all trial random streams are derived from
+	 * @param executor Executor that runs the workers
+	 * @param workers Number of worker tasks to submit to executor
+	 * @param listener Receives result of each trial (may be null)
+	 */
+	public PercolationStats(int n, long trialOffset, int trials, long seed, ExecutorService executor, int workers, TrialListener listener)
+	{
+		// Exception catch
+		if (workers <= 0)
+			throw new IllegalArgumentException("Invalid value for workers.");
+		if (trialOffset < 0)
+			throw new IllegalArgumentException("Invalid value for trialOffset.");
+
+		stats = runTrials(new GridPool(Lattice.square(n), false, workers), trialOffset, trials, seed, executor, workers, null, listener);
+	}
+
+	/**
+	 * Inputs size of grid and number of trials, saving progress to a checkpoint file every checkpointMillis.
+	 * If the checkpoint file already exists for the same n, trials and seed, the run resumes after the last saved trial.
+	 * Workers take the next trial number as soon as they are free, with no barriers between them. Results are
+	 * added in trial order as soon as every earlier trial is done, and each checkpoint saves that finished prefix,
+	 * so a crash loses at most one interval of work (plus trials still running), and a resumed run gives the
+	 * same statistics as an uninterrupted one for any number of workers.
+	 * The final checkpoint is left in place, so running again returns the finished result immediately.
 	 * @param n Size of n x n percolation grid
 	 * @param trials Number of trials to perform.
+	 * @param seed Seed that all trial random streams are derived from
+	 * @param workers Number of worker threads
+	 * @param checkpoint Checkpoint file
+	 * @param checkpointMillis Minimum time between checkpoints in milliseconds
+	 */
+	public PercolationStats(int n, int trials, long seed, int workers, Path checkpoint, long checkpointMillis)
+	{
+		// Exception catch
+		if (n <= 0)
+			throw new IllegalArgumentException("Invalid value for n.");
+		if (trials <= 0)
+			throw new IllegalArgumentException("Invalid value for trials.");
+		if (workers <= 0)
+			throw new IllegalArgumentException("Invalid value for workers.");
+
+		// Resume from checkpoint if there is one
+		StatsCheckpoint state = StatsCheckpoint.read(checkpoint);
+		if (state == null)
+			state = new StatsCheckpoint(n, trials, seed);
+		else if (state.n != n || state.trials != trials || state.seed != seed)
+			throw new IllegalArgumentException("Checkpoint " + checkpoint + " belongs to a different run.");
+
+		// Workers take trials one at a time, finished prefix is saved every interval and at the end
+		StatsCheckpoint done = state;
+		if (done.nextTrial < trials)
+		{
+			int numWorkers = (int) Math.min(workers, trials - done.nextTrial);
+			GridPool pool = new GridPool(Lattice.square(n), false, numWorkers);
+			double total = pool.total();
+			AtomicLong nextClaim = new AtomicLong(done.nextTrial);
+			Map<Long, Double> pending = new HashMap<>();
+			ExecutorService executor = Executors.newFixedThreadPool(numWorkers);
+			List<Future<?>> futures = new ArrayList<>();
+			try {
+				for (int w=0; w<numWorkers; w++)
+				{
+					int grid = w;
+					futures.add(executor.submit(() -> {
+						for (long k=nextClaim.getAndIncrement(); k<trials && !Thread.currentThread().isInterrupted(); k=nextClaim.getAndIncrement())
+						{
+							double thresh = pool.runTrial(grid, new SplittableRandom(trialSeed(seed, k))) / total;
+							
+							// Add to prefix if all earlier trials are done, otherwise wait for them
+							synchronized (done) {
+								pending.put(k, thresh);
+								while (pending.containsKey(done.nextTrial))
+									done.stats.add(pending.remove(done.nextTrial++));
+							}
+						}
+					}));
+				}
+
+				// Save finished prefix whenever interval passes while waiting for workers
+				long nextSave = System.currentTimeMillis() + checkpointMillis;
+				for (Future<?> f:futures)
+					while (true)
+					{
+						try {
+							f.get(Math.max(1, nextSave - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+							break;
+						} catch (TimeoutException error) {
+							saveCheckpoint(done, checkpoint);
+							nextSave = System.currentTimeMillis() + checkpointMillis;
+						}
+					}
+			} catch (InterruptedException error) {
+				Thread.currentThread().interrupt();
+				saveCheckpoint(done, checkpoint);
+				throw new IllegalStateException("Interrupted while running trials.", error);
+			} catch (ExecutionException error) {
+				throw new IllegalStateException("Trial failed.", error.getCause());
+			} finally {
+				for (Future<?> f:futures)
+					f.cancel(true);
+				executor.shutdownNow();
+			}
+		}
+		// Interrupted workers stop after their current trial, leaving a checkpoint of the finished prefix to resume from
+		done.write(checkpoint);
+		if (done.nextTrial < trials)
+			throw new IllegalStateException("Interrupted while running trials.");
+		stats = done.stats;
+	}
+
+	/** Writes copy of finished prefix of run to checkpoint file, without holding up workers during the write
+	 * @param state Progress of run (locked by workers while they add results)
+	 * @param checkpoint Checkpoint file
+	 */
+	private static void saveCheckpoint(StatsCheckpoint state, Path checkpoint)
+	{
+		StatsCheckpoint copy;
+		synchronized (state) {
+			copy = state.copy();
+		}
+		copy.write(checkpoint);
+	}
+
+	/**
+	 * Inputs size of grid and runs trials until the 95% confidence interval is as narrow as asked,
+	 * for when the number of trials needed is not known in advance. Trials 0, 1, 2, ... run in parallel blocks,
+	 * each block sized from the spread so far to the trials still needed (at most doubling the run).
+	 * Stops when every given target is met (after at least 30 trials), after maxTrials, or when another round
+	 * of trials would not fit in the time budget. trials() tells how many trials were needed.
+	 * @param n Size of n x n percolation grid
+	 * @param maxTrials Most trials to perform
+	 * @param halfWidth Target half width of confidence interval, (confidenceHi() - confidenceLo()) / 2 (0 for none)
+	 * @param relativeError Target half width relative to mean (0 for none)
+	 * @param budgetMillis Wall clock budget in milliseconds, checked between blocks (0 for none)
+	 * @param seed Seed that all trial random streams are derived from
+	 * @param executor Executor that runs the workers
+	 * @param workers Number of worker tasks to submit to executor
+	 * @param progress Receives snapshot of statistics of all trials after each trial (may be null)
 	 */
-	public PercolationStats(Controller controller, int n, int trials)
+	public PercolationStats(int n, int maxTrials, double halfWidth, double relativeError, long budgetMillis, long seed,
+			ExecutorService executor, int workers, Consumer<RunningStats> progress)
 	{
-		// Counter for number of open sites
-		double counter;
+		// Exception catch
+		if (maxTrials <= 0)
+			throw new IllegalArgumentException("Invalid value for trials.");
+		if (workers <= 0)
+			throw new IllegalArgumentException("Invalid value for workers.");
+		if (!(halfWidth >= 0 && relativeError >= 0) || (halfWidth == 0 && relativeError == 0))
+			throw new IllegalArgumentException("Invalid target (half width " + halfWidth + ", relative error " + relativeError + ").");
+
+		GridPool pool = new GridPool(Lattice.square(n), false, workers);
+		long start = System.nanoTime();
+		double budget = (budgetMillis > 0 ? budgetMillis * 1e6: Double.POSITIVE_INFINITY);
+		stats = new RunningStats();
+		Consumer<RunningStats> report = (progress == null ? null: block -> {
+			RunningStats all = stats.copy();
+			all.merge(block);
+			progress.accept(all);
+		});
+
+		// Block after block until target met, trials used up, or budget spent
+		int block = Math.min(maxTrials, Math.max(workers, MIN_ADAPTIVE_TRIALS));
+		while (true)
+		{
+			stats.merge(runTrials(pool, stats.count(), block, seed, executor, workers, report, null));
+			targetMet = targetMet(stats, halfWidth, relativeError);
+			long left = maxTrials - stats.count();
+			if (targetMet || left == 0)
+				break;
+
+			// Wall time per trial with all workers busy, and trials that fit in rest of budget
+			double elapsed = System.nanoTime() - start;
+			double perTrial = elapsed / stats.count();
+			double fits = (budget - elapsed) / perTrial;
+			if (fits < workers)
+				break;
+
+			// Trials needed at current spread: half width shrinks with square root of trials
+			double target = Math.min(halfWidth > 0 ? halfWidth: Double.POSITIVE_INFINITY,
+					relativeError > 0 ? relativeError * Math.abs(stats.mean()): Double.POSITIVE_INFINITY);
+			double ratio = stats.halfWidth() / target;
+			double needed = stats.count() * ratio * ratio - stats.count();
+			block = (int) Math.min(Math.min(left, fits), Math.max(workers, Math.min(needed, stats.count())));
+		}
+	}
+
+	/** Checks if statistics so far meet every given target of an adaptive run (a relative target is never met
+	 * by spread values of mean 0)
+	 * @param stats Statistics of trials so far
+	 * @param halfWidth Target half width (0 for none)
+	 * @param relativeError Target half width relative to mean (0 for none)
+	 * @return boolean
+	 */
+	static boolean targetMet(RunningStats stats, double halfWidth, double relativeError)
+	{
+		if (stats.count() < MIN_ADAPTIVE_TRIALS)
+			return false;
+		if (halfWidth > 0 && stats.halfWidth() > halfWidth)
+			return false;
+		return !(relativeError > 0 && stats.halfWidth() > relativeError * Math.abs(stats.mean()));
+	}
+
+	/** Runs all trials, worker w taking trials w, w + workers, w + 2 * workers, ... (after offset)
+	 * @param pool Grids of workers, at least one per worker
+	 * @param trialOffset Number of first trial
+	 * @param trials Number of trials to perform
+	 * @param seed Seed that all trial random streams are derived from
+	 * @param executor Executor that runs the workers
+	 * @param workers Number of worker tasks
+	 * @param progress Receives snapshot of statistics after each trial (may be null)
+	 * @param listener Receives result of each trial (may be null)
+	 * @return RunningStats Statistics of all trials
+	 */
+	private static RunningStats runTrials(GridPool pool, long trialOffset, int trials, long seed, ExecutorService executor, int workers,
+			Consumer<RunningStats> progress, TrialListener listener)
+	{
+		// Exception catch
+		if (trials <= 0)
+			throw new IllegalArgumentException("Invalid value for trials.");
+
+		// Fixed split of trials keeps merged result the same from run to run
+		int numWorkers = Math.min(workers, trials);
+		double total = pool.total();
+		RunningStats live = new RunningStats();
+		List<Future<RunningStats>> futures = new ArrayList<>();
+		for (int w=0; w<numWorkers; w++)
+		{
+			int first = w;
+			futures.add(executor.submit(() -> {
+				RunningStats partial = new RunningStats();
+				for (int k=first; k<trials && !Thread.currentThread().isInterrupted(); k+=numWorkers)
+				{
+					int openSites = pool.runTrial(first, new SplittableRandom(trialSeed(seed, trialOffset + k)));
+					double thresh = openSites / total;
+					partial.add(thresh);
+					if (listener != null)
+						listener.trialDone(trialOffset + k, openSites, thresh);
+					if (progress != null)
+						synchronized (live) {
+							live.add(thresh);
+							progress.accept(live.copy());
+						}
+				}
+				return partial;
+			}));
+		}
+
+		// Wait for all workers to finish, merging in worker order (interrupted workers stop after their current trial)
+		RunningStats stats = new RunningStats();
+		try {
+			for (Future<RunningStats> f:futures)
+				stats.merge(f.get());
+			if (stats.count() < trials)
+				throw new IllegalStateException("Interrupted while running trials.");
+		} catch (InterruptedException error) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while running trials.", error);
+		} catch (ExecutionException error) {
+			throw new IllegalStateException("Trial failed.", error.getCause());
+		} finally {
+			for (Future<RunningStats> f:futures)
+				f.cancel(true);
+		}
+		return stats;
+	}
+
+	/**
+	 * One reusable grid per worker, so a run allocates its big arrays once per worker instead of once per trial.
+	 * Worker w of every block uses grid w, and blocks run one after another, so no grid is used by two threads at once.
+	 */
+	private static class GridPool {
+
+		// Lattice of all trials, and whether bonds open instead of sites
+		private Lattice lattice;
+		private boolean bonds;
 
-		// Iterate trials number of times
-		percThresh = new double[trials];
-		for (int k=0; k<trials; k++)
+		// Grid of each worker, created on first trial
+		private Percolation[] siteGrids;
+		private BondPercolation[] bondGrids;
+
+		/**
+		 * Creates empty pool
+		 * @param lattice Lattice of sites
+		 * @param bonds Whether bonds open at random instead of sites
+		 * @param workers Number of workers
+		 */
+		GridPool(Lattice lattice, boolean bonds, int workers)
+		{
+			this.lattice = lattice;
+			this.bonds = bonds;
+			siteGrids = new Percolation[workers];
+			bondGrids = new BondPercolation[workers];
+		}
+
+		/** Runs a single trial on worker's grid, reset to all closed, until it percolates
+		 * @param w Worker
+		 * @param rand Random stream for this trial
+		 * @return int Number of open sites (or bonds) when system percolated
+		 */
+		int runTrial(int w, SplittableRandom rand)
 		{
-			// Create new percolation of size n
-			perc = new Percolation(controller, n);
-			counter = 0;
+			if (!Metrics.ENABLED)
+				return openUntilPercolation(w, rand);
+			long start = System.nanoTime();
+			int open = openUntilPercolation(w, rand);
+			Metrics.trialDone(System.nanoTime() - start);
+			return open;
+		}
 
-			// Continue until it percolates
-			while (!perc.percolates())
+		// Resets (or creates) worker's grid and opens it until it percolates
+		private int openUntilPercolation(int w, SplittableRandom rand)
+		{
+			if (bonds)
 			{
-				perc.openRandom();
-				counter++;
+				if (bondGrids[w] == null)
+					bondGrids[w] = new BondPercolation(lattice, rand);
+				else
+					bondGrids[w].reset();
+				return bondGrids[w].runToPercolation(rand);
 			}
+			if (siteGrids[w] == null)
+				siteGrids[w] = new Percolation(lattice, rand);
+			else
+				siteGrids[w].reset();
+			return siteGrids[w].runToPercolation(rand);
+		}
 
-			// Save number of open sites
-			percThresh[k] = counter / (double)(n * n);
+		/** Returns number of sites (or bonds) thresholds are a proportion of
+		 * @return double
+		 */
+		double total()
+		{
+			return (bonds ? lattice.getBonds(): lattice.getSites());
 		}
 	}
+
+	/** Derives independent seed for trial k from run seed (SplitMix64 finalizer)
+	 * @param seed Run seed
+	 * @param k Trial number
+	 * @return long
+	 */
+	static long trialSeed(long seed, long k)
+	{
+		long z = seed + (k + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
 	
 	/** Returns mean of current iteration
 	 * @return double
 	 */
 	public double mean()
 	{
-		double sum = 0;
-		for (double d:percThresh)
-			sum += d;
-		return sum / percThresh.length;
+		return stats.mean();
 	}
 	
 	/** Returns standard deviation of current iteration
@@ -60,11 +522,7 @@ public class PercolationStats {
 	 */
 	public double stddev()
 	{
-		double mean = mean();
-		double sum = 0;
-		for (double d:percThresh)
-			sum += (d - mean) * (d - mean);
-		return Math.sqrt(sum / percThresh.length);
+		return stats.stddev();
 	}
 	
 	/** Returns low end point of 95% confidence interval of current iteration
@@ -72,7 +530,7 @@ public class PercolationStats {
 	 */
 	public double confidenceLo()
 	{
-		return mean() - 1.96 * stddev() / Math.sqrt(percThresh.length); 
+		return stats.confidenceLo();
 	}
 
 	/** Returns high end point of 95% confidence interval of current iteration
@@ -80,6 +538,30 @@ public class PercolationStats {
 	 */
 	public double confidenceHi()
 	{
-		return mean() + 1.96 * stddev() / Math.sqrt(percThresh.length); 
+		return stats.confidenceHi();
 	}	
+
+	/** Returns number of trials run (as many as an adaptive run needed)
+	 * @return long
+	 */
+	public long trials()
+	{
+		return stats.count();
+	}
+
+	/** Checks if adaptive run met its confidence target (always true for a fixed number of trials)
+	 * @return boolean
+	 */
+	public boolean isTargetMet()
+	{
+		return targetMet;
+	}
+
+	/** Returns running statistics of all trials
+	 * @return RunningStats
+	 */
+	public RunningStats getStats()
+	{
+		return stats.copy();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,273 @@
+package Methods;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * PercolationSweep runs percolation trials for a range of grid sizes and reports, for each size,
+ * the distribution of the percolation threshold and the percolation probability P(n, p) for a range of p.
+ * Each trial is run once until it percolates. The number of open sites t at which it first percolated
+ * answers every p at once: at fixed p the grid has k open sites with binomial probability B(N, k, p),
+ * and it percolates when k >= t (Newman and Ziff). So P(n, p) is the average over trials of
+ * the binomial probability of at least t open sites, and no p needs its own simulation.
+ * Only the sorted thresholds t are kept (one int per trial), never an array over all n * n site counts.
+ */
+public class PercolationSweep {
+
+	// Grid sizes and open probabilities of sweep
+	private int[] sizes;
+	private double[] probabilities;
+
+	// Per grid size: number of open sites at which each trial first percolated (sorted), and threshold statistics
+	private int[][] thresholds;
+	private RunningStats[] thresholdStats;
+
+	// Per grid size and probability: percolation probability P(n, p)
+	private double[][] percProbability;
+
+	/**
+	 * Runs sweep on one worker per available processor with a random seed
+	 * @param sizes Grid sizes n
+	 * @param probabilities Open probabilities p (may be empty)
+	 * @param trials Number of trials per grid size
+	 */
+	public PercolationSweep(int[] sizes, double[] probabilities, int trials)
+	{
+		this(sizes, probabilities, trials, System.nanoTime(), Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Runs sweep on fixed pool of worker threads
+	 * @param sizes Grid sizes n
+	 * @param probabilities Open probabilities p (may be empty)
+	 * @param trials Number of trials per grid size
+	 * @param seed Seed that all trial random streams are derived from
+	 * @param workers Number of worker threads
+	 */
+	public PercolationSweep(int[] sizes, double[] probabilities, int trials, long seed, int workers)
+	{
+		// Exception catch
+		if (sizes.length == 0)
+			throw new IllegalArgumentException("No grid sizes given.");
+		for (int n:sizes)
+			if (n <= 0)
+				throw new IllegalArgumentException("Invalid value for n.");
+		for (double p:probabilities)
+			if (!(p >= 0 && p <= 1))
+				throw new IllegalArgumentException("Invalid value for p (" + p + ").");
+		if (trials <= 0)
+			throw new IllegalArgumentException("Invalid value for trials.");
+		if (workers <= 0)
+			throw new IllegalArgumentException("Invalid value for workers.");
+
+		this.sizes = sizes.clone();
+		this.probabilities = probabilities.clone();
+		thresholds = new int[sizes.length][];
+		thresholdStats = new RunningStats[sizes.length];
+		percProbability = new double[sizes.length][];
+
+		// Sizes one after another, trials of each size in parallel
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		try {
+			for (int s=0; s<sizes.length; s++)
+			{
+				runSize(s, trials, seed + s, executor, Math.min(workers, trials));
+				percProbability[s] = new double[probabilities.length];
+				for (int q=0; q<probabilities.length; q++)
+					percProbability[s][q] = percolationProbability(s, probabilities[q]);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/** Runs all trials of one grid size, worker w taking trials w, w + workers, ...
+	 * @param s Index of grid size
+	 * @param trials Number of trials
+	 * @param seed Seed of this grid size
+	 * @param executor Executor that runs the workers
+	 * @param workers Number of worker tasks
+	 */
+	private void runSize(int s, int trials, long seed, ExecutorService executor, int workers)
+	{
+		int n = sizes[s];
+		int sites = n * n;
+		List<Future<int[]>> futures = new ArrayList<>();
+		for (int w=0; w<workers; w++)
+		{
+			int first = w;
+			futures.add(executor.submit(() -> {
+				// One grid per worker, reset between trials, threshold of each of its trials
+				int[] found = new int[(trials - first + workers - 1) / workers];
+				Percolation perc = new Percolation(n);
+				for (int k=first, c=0; k<trials; k+=workers, c++)
+				{
+					perc.reset();
+					found[c] = perc.runToPercolation(new SplittableRandom(PercolationStats.trialSeed(seed, k)));
+				}
+				return found;
+			}));
+		}
+
+		// Gather thresholds of all workers
+		int[] sorted = new int[trials];
+		try {
+			int filled = 0;
+			for (Future<int[]> f:futures)
+			{
+				int[] partial = f.get();
+				System.arraycopy(partial, 0, sorted, filled, partial.length);
+				filled += partial.length;
+			}
+		} catch (InterruptedException error) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while running trials.", error);
+		} catch (ExecutionException error) {
+			throw new IllegalStateException("Trial failed.", error.getCause());
+		} finally {
+			for (Future<int[]> f:futures)
+				f.cancel(true);
+		}
+
+		// Threshold statistics in same form as PercolationStats, added in increasing order
+		Arrays.sort(sorted);
+		RunningStats stats = new RunningStats();
+		for (int t:sorted)
+			stats.add(t / (double) sites);
+		thresholds[s] = sorted;
+		thresholdStats[s] = stats;
+	}
+
+	/** Returns number of sorted thresholds at most k (trials percolated with k open sites)
+	 * @param sorted Sorted thresholds
+	 * @param k Number of open sites
+	 * @return int
+	 */
+	private static int countAtMost(int[] sorted, int k)
+	{
+		int low = 0;
+		int high = sorted.length;
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+			if (sorted[mid] <= k)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/** Returns percolation probability P(n, p) for any p, from trials of grid size index s
+	 * @param s Index of grid size
+	 * @param p Open probability
+	 * @return double
+	 */
+	public double percolationProbability(int s, double p)
+	{
+		// Exception catch
+		if (!(p >= 0 && p <= 1))
+			throw new IllegalArgumentException("Invalid value for p (" + p + ").");
+
+		// Number of trials percolated with k open sites is number of thresholds at most k
+		int[] sorted = thresholds[s];
+		int trials = sorted.length;
+		int sites = sizes[s] * sizes[s];
+		if (p == 0)
+			return countAtMost(sorted, 0) / (double) trials;
+		if (p == 1)
+			return 1;
+
+		// Binomial weights built outward from the mode, then normalized (avoids factorials),
+		// moving a position in the sorted thresholds along with k
+		int mode = (int) Math.min(sites, Math.floor((sites + 1) * p));
+		double ratio = p / (1 - p);
+		double weight = 1;
+		double total = 1;
+		int atMode = countAtMost(sorted, mode);
+		double result = atMode;
+		int up = atMode;
+		for (int k=mode; k<sites && weight > 1e-17 * total; k++)
+		{
+			while (up < trials && sorted[up] <= k + 1)
+				up++;
+			weight *= (sites - k) / (k + 1.0) * ratio;
+			total += weight;
+			result += weight * up;
+		}
+		weight = 1;
+		int down = atMode;
+		for (int k=mode; k>0 && weight > 1e-17 * total; k--)
+		{
+			while (down > 0 && sorted[down - 1] > k - 1)
+				down--;
+			weight *= k / (sites - k + 1.0) / ratio;
+			total += weight;
+			result += weight * down;
+		}
+		return result / total / trials;
+	}
+
+	/** Returns grid sizes of sweep
+	 * @return int[]
+	 */
+	public int[] getSizes()
+	{
+		return sizes.clone();
+	}
+
+	/** Returns open probabilities of sweep
+	 * @return double[]
+	 */
+	public double[] getProbabilities()
+	{
+		return probabilities.clone();
+	}
+
+	/** Returns P(n, p) for grid size index s and probability index q
+	 * @param s Index of grid size
+	 * @param q Index of probability
+	 * @return double
+	 */
+	public double getPercolationProbability(int s, int q)
+	{
+		return percProbability[s][q];
+	}
+
+	/** Returns statistics of percolation threshold for grid size index s
+	 * @param s Index of grid size
+	 * @return RunningStats
+	 */
+	public RunningStats getThresholdStats(int s)
+	{
+		return thresholdStats[s].copy();
+	}
+
+	/** Returns number of open sites at which each trial of grid size index s first percolated, sorted
+	 * (k / (n * n) threshold)
+	 * @param s Index of grid size
+	 * @return int[]
+	 */
+	public int[] getThresholds(int s)
+	{
+		return thresholds[s].clone();
+	}
+
+	/** Returns threshold distribution for grid size index s, entry k being number of trials
+	 * that first percolated with k open sites (k / (n * n) threshold). Built on each call, n * n + 1 entries.
+	 * @param s Index of grid size
+	 * @return long[]
+	 */
+	public long[] getThresholdCounts(int s)
+	{
+		long[] counts = new long[sizes[s] * sizes[s] + 1];
+		for (int t:thresholds[s])
+			counts[t]++;
+		return counts;
+	}
+}
\ No newline at end of file
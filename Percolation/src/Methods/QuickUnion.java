@@ -1,9 +1,11 @@
 package Methods;
+import java.util.Arrays;
 
 /**
  * Creates object to simulate quick union between tree nodes.
+ * Links by size with path halving, and always keeps node 0 as root of its tree.
  */
-public class QuickUnion {
+public class QuickUnion implements UnionFind {
 
 	// Variables
 	private int[] id;
@@ -22,30 +24,58 @@ public class QuickUnion {
 		// Initialize variables
 		id = new int[n];
 		treeSize = new int[n];
-		for (int i=0; i<n; i++)
-		{
+		reset();
+	}
+	
+	/** Disconnects all nodes again, reusing arrays (simple loops the JIT turns into vector stores)
+	 */
+	public void reset()
+	{
+		for (int i=0; i<id.length; i++)
 			id[i] = i;
-			treeSize[i] = i;
-		}
+		Arrays.fill(treeSize, 1);
 	}
 	
-	/** Provides parent node until root is found
+	/** Provides parent node until root is found (no range check, callers check once on entry)
 	 * @param i Initial node 
 	 * @return int
 	 */
 	private int root(int i)
 	{
-		// Checks if valid input
-		exceptionCheck(i);
-
+		int steps = 0;
 		while (i != id[i])
 		{
 			id[i] = id[id[i]];
 			i = id[i];
+			steps++;
 		}
+		if (Metrics.ENABLED)
+			Metrics.find(steps);
 		return i;
 	}
 	
+	/** Returns root of node's tree (same for all connected nodes)
+	 * @param p Node
+	 * @return int
+	 */
+	public int find(int p)
+	{
+		// Checks if valid input
+		exceptionCheck(p);
+		return root(p);
+	}
+	
+	/** Returns number of nodes connected to node (including itself)
+	 * @param p Node
+	 * @return int
+	 */
+	public int size(int p)
+	{
+		// Checks if valid input
+		exceptionCheck(p);
+		return treeSize[root(p)];
+	}
+	
 	/** Checks if two nodes are connected
 	 * @param p Node 1
 	 * @param q Node 2
@@ -68,7 +98,15 @@ public class QuickUnion {
 		// Checks if valid input
 		exceptionCheck(p);
 		exceptionCheck(q);
-		
+		unionUnchecked(p, q);
+	}
+	
+	/** Connects two nodes without range checks, for Percolation whose sites are valid by construction
+	 * @param p Node 1
+	 * @param q Node 2
+	 */
+	public void unionUnchecked(int p, int q)
+	{
 		// Finds root
 		int i = root(p);
 		int j = root(q);
@@ -76,21 +114,81 @@ public class QuickUnion {
 		// Already share root
 		if (i == j)
 			return;
-		
+		linkRoots(i, j);
+	}
+	
+	/** Returns root of node's tree without range check
+	 * @param p Node
+	 * @return int
+	 */
+	public int findUnchecked(int p)
+	{
+		return root(p);
+	}
+	
+	/** Returns number of nodes connected to node without range check
+	 * @param p Node
+	 * @return int
+	 */
+	public int sizeUnchecked(int p)
+	{
+		return treeSize[root(p)];
+	}
+	
+	/** Puts one of two different roots under the other without checking them
+	 * @param i Root 1
+	 * @param j Root 2
+	 * @return int Root of joined tree
+	 */
+	public int linkUnchecked(int i, int j)
+	{
+		return linkRoots(i, j);
+	}
+	
+	/** Puts one of two different roots under the other, without walking either tree again
+	 * @param i Root 1
+	 * @param j Root 2
+	 * @return int Root of joined tree
+	 */
+	public int link(int i, int j)
+	{
+		// Checks if valid input
+		exceptionCheck(i);
+		exceptionCheck(j);
+		if (id[i] != i || id[j] != j || i == j)
+			throw new IllegalArgumentException("Invalid roots (" + i + ", " + j + ").");
+		return linkRoots(i, j);
+	}
+	
+	/** Makes root of the smaller tree point at root of the larger tree (node 0 always stays root)
+	 * @param i Root 1
+	 * @param j Root 2
+	 * @return int Root of joined tree
+	 */
+	private int linkRoots(int i, int j)
+	{
 		// If root is zero, make primary root
 		if (i == 0)
+		{
 			id[j] = i;
-		else if (j == 0)
+			treeSize[i] += treeSize[j];
+			return i;
+		} else if (j == 0) {
 			id[i] = j;
+			treeSize[j] += treeSize[i];
+			return j;
+		}
 		
 		// Check size, updating id and tree size
 		else if (treeSize[i] < treeSize[j])
 		{
 			id[i] = j;
 			treeSize[j] += treeSize[i];
+			return j;
 		} else {
 			id[j] = i;
 			treeSize[i] += treeSize[j];
+			return i;
 		}
 	}	
 	
@@ -0,0 +1,135 @@
+package Methods;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Keeps running mean and variance of a stream of values (Welford's method) in constant memory.
+ * Partial results, e.g. from separate worker threads, can be merged (Chan et al.).
+ * Standard deviation is the population standard deviation, as PercolationStats has always reported.
+ */
+public class RunningStats {
+
+	// Number of values, their mean, and sum of squared differences from the mean
+	private long count;
+	private double mean;
+	private double m2;
+
+	/** Adds value to statistics
+	 * @param x Value
+	 */
+	public void add(double x)
+	{
+		count++;
+		double delta = x - mean;
+		mean += delta / count;
+		m2 += delta * (x - mean);
+	}
+
+	/** Merges other statistics into these
+	 * @param other Statistics to merge
+	 */
+	public void merge(RunningStats other)
+	{
+		if (other.count == 0)
+			return;
+		if (count == 0)
+		{
+			count = other.count;
+			mean = other.mean;
+			m2 = other.m2;
+			return;
+		}
+
+		long total = count + other.count;
+		double delta = other.mean - mean;
+		mean += delta * other.count / total;
+		m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+		count = total;
+	}
+
+	/** Returns number of values added
+	 * @return long
+	 */
+	public long count()
+	{
+		return count;
+	}
+
+	/** Returns mean of values
+	 * @return double
+	 */
+	public double mean()
+	{
+		return (count == 0 ? Double.NaN: mean);
+	}
+
+	/** Returns standard deviation of values
+	 * @return double
+	 */
+	public double stddev()
+	{
+		return (count == 0 ? Double.NaN: Math.sqrt(m2 / count));
+	}
+
+	/** Returns half width of 95% confidence interval
+	 * @return double
+	 */
+	public double halfWidth()
+	{
+		return 1.96 * stddev() / Math.sqrt(count);
+	}
+
+	/** Returns low end point of 95% confidence interval
+	 * @return double
+	 */
+	public double confidenceLo()
+	{
+		return mean() - halfWidth();
+	}
+
+	/** Returns high end point of 95% confidence interval
+	 * @return double
+	 */
+	public double confidenceHi()
+	{
+		return mean() + halfWidth();
+	}
+
+	/** Writes statistics in binary form
+	 * @param out Output
+	 * @throws IOException If output fails
+	 */
+	public void write(DataOutput out) throws IOException
+	{
+		out.writeLong(count);
+		out.writeDouble(mean);
+		out.writeDouble(m2);
+	}
+
+	/** Reads statistics written by write
+	 * @param in Input
+	 * @return RunningStats
+	 * @throws IOException If input fails
+	 */
+	public static RunningStats read(DataInput in) throws IOException
+	{
+		RunningStats stats = new RunningStats();
+		stats.count = in.readLong();
+		stats.mean = in.readDouble();
+		stats.m2 = in.readDouble();
+		if (stats.count < 0)
+			throw new IOException("Invalid statistics count (" + stats.count + ").");
+		return stats;
+	}
+
+	/** Returns copy of statistics
+	 * @return RunningStats
+	 */
+	public RunningStats copy()
+	{
+		RunningStats stats = new RunningStats();
+		stats.merge(this);
+		return stats;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+package Methods;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Progress of a checkpointed PercolationStats run, saved as a small binary file.
+ * Since trial k draws from a stream derived only from (seed, k), the seed and the number of
+ * the next trial are all the random state a run needs to resume.
+ */
+class StatsCheckpoint {
+
+	// File format marker and version
+	private static final int MAGIC = 0x50435331;
+	private static final int VERSION = 1;
+
+	// Run settings
+	final int n;
+	final int trials;
+	final long seed;
+
+	// Progress: next trial to run and statistics of all trials before it
+	long nextTrial;
+	RunningStats stats;
+
+	/**
+	 * Creates checkpoint of run with no trials done
+	 * @param n Size of n x n percolation grid
+	 * @param trials Number of trials of run
+	 * @param seed Seed of run
+	 */
+	StatsCheckpoint(int n, int trials, long seed)
+	{
+		this.n = n;
+		this.trials = trials;
+		this.seed = seed;
+		stats = new RunningStats();
+	}
+
+	/** Returns copy of checkpoint, so it can be written while the run goes on
+	 * @return StatsCheckpoint
+	 */
+	StatsCheckpoint copy()
+	{
+		StatsCheckpoint state = new StatsCheckpoint(n, trials, seed);
+		state.nextTrial = nextTrial;
+		state.stats = stats.copy();
+		return state;
+	}
+
+	/** Reads checkpoint file
+	 * @param file Checkpoint file
+	 * @return StatsCheckpoint, or null if file does not exist
+	 */
+	static StatsCheckpoint read(Path file)
+	{
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				throw new IOException("Not a checkpoint file.");
+			StatsCheckpoint state = new StatsCheckpoint(in.readInt(), in.readInt(), in.readLong());
+			state.nextTrial = in.readLong();
+			state.stats = RunningStats.read(in);
+			if (state.nextTrial < 0 || state.nextTrial > state.trials || state.stats.count() != state.nextTrial)
+				throw new IOException("Inconsistent checkpoint.");
+			return state;
+		} catch (NoSuchFileException error) {
+			return null;
+		} catch (IOException error) {
+			throw new UncheckedIOException("Could not read checkpoint " + file + ".", error);
+		}
+	}
+
+	/** Writes checkpoint to temporary file and forces it to disk, then moves it over old checkpoint
+	 * so a crash never leaves half a file (or a renamed file whose data never reached the disk)
+	 * @param file Checkpoint file
+	 */
+	void write(Path file)
+	{
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(n);
+				out.writeInt(trials);
+				out.writeLong(seed);
+				out.writeLong(nextTrial);
+				stats.write(out);
+				out.flush();
+				channel.force(true);
+			}
+			try {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException error) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException error) {
+			throw new UncheckedIOException("Could not write checkpoint " + file + ".", error);
+		}
+	}
+}
\ No newline at end of file
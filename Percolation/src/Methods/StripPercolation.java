@@ -0,0 +1,313 @@
+package Methods;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Decides whether a static grid of open sites percolates by splitting it into horizontal strips,
+ * one per worker. Each strip is swept row by row (as in ClusterLabeler) on its own thread and only
+ * reports which sites of its first and last rows are connected inside the strip. Those boundary labels
+ * are then joined across neighboring strips in one small QuickUnion with virtual top and bottom,
+ * so the serial part is a few rows per strip no matter how tall the grid is.
+ */
+public class StripPercolation {
+
+	// Results
+	private int size;
+	private int strips;
+	private boolean percolates;
+	private long openSites;
+
+	/**
+	 * Labels grid on one worker per available processor
+	 * @param grid Open sites
+	 */
+	public StripPercolation(BitGrid grid)
+	{
+		this(grid, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Labels grid in one strip per worker on fixed pool of worker threads
+	 * @param grid Open sites
+	 * @param workers Number of worker threads
+	 */
+	public StripPercolation(BitGrid grid, int workers)
+	{
+		// Exception catch
+		if (workers <= 0)
+			throw new IllegalArgumentException("Invalid value for workers.");
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, grid.getGridSize()));
+		try {
+			label(grid, executor, workers);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Labels grid in given number of strips on caller's executor
+	 * @param grid Open sites
+	 * @param executor Executor that runs the strips
+	 * @param strips Number of strips
+	 */
+	public StripPercolation(BitGrid grid, ExecutorService executor, int strips)
+	{
+		// Exception catch
+		if (strips <= 0)
+			throw new IllegalArgumentException("Invalid value for strips.");
+
+		label(grid, executor, strips);
+	}
+
+	/** Labels all strips in parallel, then joins boundary rows of neighboring strips
+	 * @param grid Open sites
+	 * @param executor Executor that runs the strips
+	 * @param count Number of strips wanted
+	 */
+	private void label(BitGrid grid, ExecutorService executor, int count)
+	{
+		size = grid.getGridSize();
+		if (grid.getColumns() != size)
+			throw new IllegalArgumentException("Grid is not square.");
+		strips = Math.min(count, size);
+		if ((long) strips * 2 * size + 2 > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Too many strips for n.");
+
+		// Strip s covers rows [s * n / strips, (s + 1) * n / strips)
+		List<Future<Strip>> futures = new ArrayList<>();
+		for (int s=0; s<strips; s++)
+		{
+			int from = (int) ((long) s * size / strips);
+			int to = (int) ((long) (s + 1) * size / strips);
+			futures.add(executor.submit(() -> new Strip(grid, from, to)));
+		}
+		Strip[] done = new Strip[strips];
+		try {
+			for (int s=0; s<strips; s++)
+				done[s] = futures.get(s).get();
+		} catch (InterruptedException error) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while labeling strips.", error);
+		} catch (ExecutionException error) {
+			throw new IllegalStateException("Strip labeling failed.", error.getCause());
+		} finally {
+			for (Future<Strip> f:futures)
+				f.cancel(true);
+		}
+
+		// Boundary labels of strip s are nodes 2 + s * 2n + label, virtual top 0 and bottom 1
+		QuickUnion qu = new QuickUnion(strips * 2 * size + 2);
+		for (int c=0; c<size; c++)
+		{
+			if (done[0].top[c] >= 0)
+				qu.union(0, 2 + done[0].top[c]);
+			if (done[strips - 1].bottom[c] >= 0)
+				qu.union(1, 2 + (strips - 1) * 2 * size + done[strips - 1].bottom[c]);
+		}
+		for (int s=0; s+1<strips; s++)
+			for (int c=0; c<size; c++)
+				if (done[s].bottom[c] >= 0 && done[s + 1].top[c] >= 0)
+					qu.union(2 + s * 2 * size + done[s].bottom[c], 2 + (s + 1) * 2 * size + done[s + 1].top[c]);
+		percolates = qu.connected(0, 1);
+		for (Strip strip:done)
+			openSites += strip.openSites;
+	}
+
+	/**
+	 * One strip of rows, swept top to bottom with labels renumbered after every row.
+	 * Labels 0 to n-1 are anchors for sites of the strip's first row and are never renumbered,
+	 * so at the end first and last row sites share a label exactly when the strip connects them.
+	 */
+	private static class Strip {
+
+		// Labels of first and last row (-1 if closed), both below 2n
+		int[] top;
+		int[] bottom;
+		long openSites;
+
+		// Labels of previous and current row, label parents, and renumbering space
+		private int size;
+		private int[] prev;
+		private int[] cur;
+		private int[] parent;
+		private int[] remap;
+		private int[] anchorParent;
+		private int numLabels;
+
+		/**
+		 * Sweeps rows [from, to) of grid
+		 * @param grid Open sites
+		 * @param from First row
+		 * @param to Row after last row
+		 */
+		Strip(BitGrid grid, int from, int to)
+		{
+			size = grid.getGridSize();
+			prev = new int[size];
+			cur = new int[size];
+			parent = new int[3 * size];
+			remap = new int[3 * size];
+			anchorParent = new int[size];
+			Arrays.fill(prev, -1);
+
+			for (int r=from; r<to; r++)
+			{
+				if (Thread.currentThread().isInterrupted())
+					throw new IllegalStateException("Strip labeling interrupted.");
+				labelRow(grid, r, r == from);
+				if (r == from)
+					top = cur.clone();
+				finishRow();
+
+				// Current row becomes previous row
+				int[] temp = prev;
+				prev = cur;
+				cur = temp;
+			}
+
+			// First row labels are now anchors, resolve them to final labels
+			bottom = prev;
+			for (int c=0; c<size; c++)
+				if (top[c] >= 0)
+					top[c] = find(c);
+		}
+
+		/** Labels open sites of row r, joining them with open neighbors above and to the left
+		 * @param grid Open sites
+		 * @param r Row
+		 * @param first Whether r is first row of strip
+		 */
+		private void labelRow(BitGrid grid, int r, boolean first)
+		{
+			long rowStart = (long) r * size;
+			for (int c=0; c<size; c++)
+			{
+				if (!grid.get(rowStart + c))
+				{
+					cur[c] = -1;
+					continue;
+				}
+				openSites++;
+
+				// First row sites are their own anchors
+				if (first)
+				{
+					parent[c] = c;
+					cur[c] = c;
+					if (c > 0 && cur[c - 1] >= 0)
+						parent[find(c)] = find(c - 1);
+					continue;
+				}
+
+				// Join label above and label to the left
+				int label = -1;
+				if (prev[c] >= 0)
+					label = find(prev[c]);
+				if (c > 0 && cur[c - 1] >= 0)
+				{
+					int left = find(cur[c - 1]);
+					if (label < 0)
+						label = left;
+					else if (left != label)
+						parent[left] = label;
+				}
+
+				// New label if no open neighbor
+				if (label < 0)
+				{
+					label = numLabels++;
+					parent[label] = label;
+				}
+				cur[c] = label;
+			}
+			if (first)
+				numLabels = size;
+		}
+
+		/** Renumbers roots still in current row to labels n, n+1, ... and points every anchor at
+		 * its root's new label, or at one anchor of its cluster if the cluster no longer reaches current row
+		 */
+		private void finishRow()
+		{
+			// New numbers of roots in current row
+			Arrays.fill(remap, 0, numLabels, -1);
+			int kept = size;
+			for (int c=0; c<size; c++)
+				if (cur[c] >= 0)
+				{
+					int root = find(cur[c]);
+					if (remap[root] < 0)
+						remap[root] = kept++;
+				}
+
+			// Anchors follow their root, or gather under first anchor of a finished cluster
+			for (int a=0; a<size; a++)
+			{
+				anchorParent[a] = a;
+				if (top[a] < 0)
+					continue;
+				int root = find(a);
+				if (remap[root] == -1)
+					remap[root] = -2 - a;
+				anchorParent[a] = (remap[root] >= 0 ? remap[root]: -2 - remap[root]);
+			}
+
+			for (int c=0; c<size; c++)
+				if (cur[c] >= 0)
+					cur[c] = remap[find(cur[c])];
+			System.arraycopy(anchorParent, 0, parent, 0, size);
+			for (int l=size; l<kept; l++)
+				parent[l] = l;
+			numLabels = kept;
+		}
+
+		// Root of label, halving path on the way
+		private int find(int l)
+		{
+			while (parent[l] != l)
+			{
+				parent[l] = parent[parent[l]];
+				l = parent[l];
+			}
+			return l;
+		}
+	}
+
+	/** Checks if grid percolates (an open cluster touches top and bottom rows)
+	 * @return boolean
+	 */
+	public boolean percolates()
+	{
+		return percolates;
+	}
+
+	/** Returns number of open sites
+	 * @return long
+	 */
+	public long numberOfOpenSites()
+	{
+		return openSites;
+	}
+
+	/** Returns number of strips grid was split into
+	 * @return int
+	 */
+	public int getStrips()
+	{
+		return strips;
+	}
+
+	/** Returns size of grid
+	 * @return int
+	 */
+	public int getGridSize()
+	{
+		return size;
+	}
+}
\ No newline at end of file
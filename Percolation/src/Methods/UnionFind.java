@@ -0,0 +1,69 @@
+package Methods;
+
+/**
+ * Union find (disjoint set) of nodes 0 to n-1, as used by Percolation.
+ * Implementations differ in how they link trees and compress paths (see QuickUnion and ConfigurableQuickUnion).
+ */
+public interface UnionFind {
+
+	/** Returns root of node's tree (same for all connected nodes)
+	 * @param p Node
+	 * @return int
+	 */
+	int find(int p);
+
+	/** Returns number of nodes connected to node (including itself)
+	 * @param p Node
+	 * @return int
+	 */
+	int size(int p);
+
+	/** Checks if two nodes are connected
+	 * @param p Node 1
+	 * @param q Node 2
+	 * @return boolean
+	 */
+	boolean connected(int p, int q);
+
+	/** Connects two nodes
+	 * @param p Node 1
+	 * @param q Node 2
+	 */
+	void union(int p, int q);
+
+	/** Puts one of two different roots (as returned by find) under the other, without walking either tree again
+	 * @param i Root 1
+	 * @param j Root 2
+	 * @return int Root of joined tree
+	 */
+	int link(int i, int j);
+
+	/** Returns root of node's tree without range check, for callers whose nodes are valid by construction
+	 * @param p Node
+	 * @return int
+	 */
+	int findUnchecked(int p);
+
+	/** Returns number of nodes connected to node without range check
+	 * @param p Node
+	 * @return int
+	 */
+	int sizeUnchecked(int p);
+
+	/** Connects two nodes without range checks
+	 * @param p Node 1
+	 * @param q Node 2
+	 */
+	void unionUnchecked(int p, int q);
+
+	/** Puts one of two different roots under the other without checking them
+	 * @param i Root 1
+	 * @param j Root 2
+	 * @return int Root of joined tree
+	 */
+	int linkUnchecked(int i, int j);
+
+	/** Disconnects all nodes again, reusing arrays
+	 */
+	void reset();
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package Methods;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks BatchRunner's option parsing, and that shards of a study run with --trial-offset and --trial-count
+ * concatenate to the same trials as one run.
+ */
+public class BatchRunnerTest {
+
+	// Directory for output files
+	@TempDir
+	Path dir;
+
+	@Test
+	public void parsesOptions()
+	{
+		Map<String, String> options = BatchRunner.parse(new String[] {"--n", "8", "--trial-count=5", "--summary", "--format", "json"});
+		assertEquals(Map.of("n", "8", "trials", "5", "summary", "true", "format", "json"), options);
+	}
+
+	@Test
+	public void rejectsBadOptions()
+	{
+		// Unknown options, including ones whose name appears inside the usage text
+		assertThrows(IllegalArgumentException.class, () -> BatchRunner.parse(new String[] {"--bogus", "1"}));
+		assertThrows(IllegalArgumentException.class, () -> BatchRunner.parse(new String[] {"--trial", "1"}));
+		assertThrows(IllegalArgumentException.class, () -> BatchRunner.parse(new String[] {"--json"}));
+		assertThrows(IllegalArgumentException.class, () -> BatchRunner.parse(new String[] {"n", "8"}));
+		assertThrows(IllegalArgumentException.class, () -> BatchRunner.parse(new String[] {"--n"}));
+
+		// Bad numbers and values
+		assertThrows(IllegalArgumentException.class, () -> run("--n", "eight", "--trials", "5"));
+		assertThrows(IllegalArgumentException.class, () -> run("--n", "8", "--trials", "5000000000"));
+		assertThrows(IllegalArgumentException.class, () -> run("--n", "8", "--trials", "0"));
+		assertThrows(IllegalArgumentException.class, () -> run("--n", "8", "--trials", "5", "--trial-offset", "-1"));
+		assertThrows(IllegalArgumentException.class, () -> run("--n", "8", "--trials", "5", "--format", "xml"));
+		assertThrows(IllegalArgumentException.class, () -> run("--n", "8", "--trials", "5", "--summary=yes"));
+	}
+
+	@Test
+	public void shardsConcatenateToOneRun() throws IOException
+	{
+		for (String format:new String[] {"csv", "json"})
+		{
+			List<String> whole = output(format, "--trial-count", "20");
+			List<String> shards = new ArrayList<>();
+			shards.addAll(output(format, "--trial-offset", "0", "--trial-count", "7"));
+			shards.addAll(output(format, "--trial-offset", "7", "--trial-count", "1"));
+			shards.addAll(output(format, "--trial-offset", "8", "--trial-count", "12"));
+
+			// Shards of CSV repeat the header line
+			if (format.equals("csv"))
+			{
+				whole.remove(0);
+				shards.removeIf(line -> line.startsWith("trial,"));
+			}
+			assertEquals(20, whole.size(), format);
+			assertEquals(whole, shards, format);
+		}
+
+		// Summary can be turned off explicitly
+		assertEquals(output("csv", "--trial-count", "20"), output("csv", "--trial-count", "20", "--summary=false"));
+		assertEquals(2, output("csv", "--trial-count", "20", "--summary=true").size());
+	}
+
+	// Runs study of seed 42 on 10 x 10 grids with given options, returning lines written
+	private List<String> output(String format, String... args) throws IOException
+	{
+		Path file = Files.createTempFile(dir, "batch", "." + format);
+		List<String> all = new ArrayList<>(List.of("--n", "10", "--seed", "42", "--threads", "3", "--format", format, "--output", file.toString()));
+		all.addAll(List.of(args));
+		run(all.toArray(new String[0]));
+		return new ArrayList<>(Files.readAllLines(file));
+	}
+
+	private static void run(String... args) throws IOException
+	{
+		BatchRunner.run(BatchRunner.parse(args));
+	}
+}
\ No newline at end of file
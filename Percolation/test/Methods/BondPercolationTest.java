@@ -0,0 +1,154 @@
+package Methods;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks BondPercolation's dense bond numbering against brute force over Lattice.neighbor, on every lattice
+ * open and periodic for n = 1 to 5: each distinct pair of neighbors is one bond, and percolation matches
+ * a breadth-first search over the open bonds after every bond opened.
+ */
+public class BondPercolationTest {
+
+	@Test
+	public void matchesBreadthFirstSearch()
+	{
+		SplittableRandom rand = new SplittableRandom(42);
+		for (Lattice lattice:lattices())
+		{
+			BondPercolation perc = new BondPercolation(lattice, rand);
+			String run = lattice.toString();
+			assertEquals(pairs(lattice).size(), perc.numberOfBonds(), run);
+			assertEquals(0, perc.numberOfOpenBonds(), run);
+			while (perc.numberOfOpenBonds() < perc.numberOfBonds())
+			{
+				// Random closed bonds, and bonds opened from either end by neighbor number
+				if (rand.nextBoolean())
+					perc.openRandom(rand);
+				else
+				{
+					int site = 1 + rand.nextInt(lattice.getSites());
+					int d = rand.nextInt(lattice.getDegree());
+					if (lattice.neighbor(site, d) == site)
+						continue;
+					perc.open(row(lattice, site), column(lattice, site), d);
+				}
+				Set<Long> open = openPairs(lattice, perc);
+				assertEquals(open.size(), perc.numberOfOpenBonds(), run);
+				assertEquals(search(lattice, open), perc.percolates(), run);
+			}
+			assertEquals(pairs(lattice), openPairs(lattice, perc), run);
+			assertTrue(perc.percolates(), run);
+		}
+	}
+
+	@Test
+	public void resetMatchesNewInstance()
+	{
+		for (Lattice lattice:lattices())
+		{
+			BondPercolation reused = new BondPercolation(lattice, new SplittableRandom(1));
+			for (long seed=0; seed<5; seed++)
+			{
+				// Reused lattice is left partly open by a run with another seed first
+				reused.runToPercolation(new SplittableRandom(seed + 100));
+				reused.reset();
+				assertEquals(0, reused.numberOfOpenBonds());
+				BondPercolation fresh = new BondPercolation(lattice, new SplittableRandom(1));
+				String run = lattice + ", seed = " + seed;
+				assertEquals(fresh.runToPercolation(new SplittableRandom(seed)), reused.runToPercolation(new SplittableRandom(seed)), run);
+				assertEquals(openPairs(lattice, fresh), openPairs(lattice, reused), run);
+			}
+		}
+	}
+
+	// Every lattice, open and periodic, for n = 1 to 5
+	private static List<Lattice> lattices()
+	{
+		List<Lattice> lattices = new ArrayList<>();
+		for (int n=1; n<=5; n++)
+			for (boolean periodic:new boolean[] {false, true})
+			{
+				lattices.add(Lattice.square(n, periodic));
+				lattices.add(Lattice.triangular(n, periodic));
+				lattices.add(Lattice.hexagonal(n, periodic));
+				lattices.add(Lattice.cubic(n, periodic));
+			}
+		return lattices;
+	}
+
+	// Distinct pairs of neighboring sites
+	private static Set<Long> pairs(Lattice lattice)
+	{
+		Set<Long> pairs = new HashSet<>();
+		for (int site=1; site<=lattice.getSites(); site++)
+			for (int d=0; d<lattice.getDegree(); d++)
+				if (lattice.neighbor(site, d) != site)
+					pairs.add(pair(lattice, site, lattice.neighbor(site, d)));
+		return pairs;
+	}
+
+	// Distinct pairs whose bond is open, checking that both ends (and every neighbor number) agree
+	private static Set<Long> openPairs(Lattice lattice, BondPercolation perc)
+	{
+		Set<Long> open = new HashSet<>();
+		for (int site=1; site<=lattice.getSites(); site++)
+			for (int d=0; d<lattice.getDegree(); d++)
+				if (lattice.neighbor(site, d) != site && perc.isOpen(row(lattice, site), column(lattice, site), d))
+					open.add(pair(lattice, site, lattice.neighbor(site, d)));
+		for (int site=1; site<=lattice.getSites(); site++)
+			for (int d=0; d<lattice.getDegree(); d++)
+				if (lattice.neighbor(site, d) != site)
+					assertEquals(open.contains(pair(lattice, site, lattice.neighbor(site, d))),
+							perc.isOpen(row(lattice, site), column(lattice, site), d), lattice + ", site " + site + ", d = " + d);
+		return open;
+	}
+
+	// Searches open bonds from first row for a site in last row
+	private static boolean search(Lattice lattice, Set<Long> open)
+	{
+		boolean[] seen = new boolean[lattice.getSites() + 1];
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		for (int j=1; j<=lattice.getColumns(); j++)
+		{
+			seen[j] = true;
+			queue.add(j);
+		}
+		while (!queue.isEmpty())
+		{
+			int site = queue.poll();
+			if (row(lattice, site) == lattice.getRows())
+				return true;
+			for (int d=0; d<lattice.getDegree(); d++)
+			{
+				int other = lattice.neighbor(site, d);
+				if (!seen[other] && open.contains(pair(lattice, site, other)))
+				{
+					seen[other] = true;
+					queue.add(other);
+				}
+			}
+		}
+		return false;
+	}
+
+	private static long pair(Lattice lattice, int a, int b)
+	{
+		return (long) Math.min(a, b) * (lattice.getSites() + 1) + Math.max(a, b);
+	}
+
+	private static int row(Lattice lattice, int site)
+	{
+		return (site - 1) / lattice.getColumns() + 1;
+	}
+
+	private static int column(Lattice lattice, int site)
+	{
+		return (site - 1) % lattice.getColumns() + 1;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package Methods;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.SortedMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks ClusterLabeler's one-pass labeling against Percolation tracking clusters site by site,
+ * on random grids for n = 1 to 20 and p = 0.3 to 0.8.
+ */
+public class ClusterLabelerTest {
+
+	@Test
+	public void matchesIncrementalClusters()
+	{
+		SplittableRandom rand = new SplittableRandom(42);
+		for (int trial=0; trial<2000; trial++)
+		{
+			int n = 1 + rand.nextInt(20);
+			double p = 0.3 + 0.5 * rand.nextDouble();
+			BitGrid grid = BitGrid.random(n, p, rand);
+			Percolation perc = new Percolation(Lattice.square(n), rand, true);
+			for (int i=1; i<=n; i++)
+				for (int j=1; j<=n; j++)
+					if (grid.get(i - 1, j - 1))
+						perc.open(i, j);
+			ClusterLabeler labeler = new ClusterLabeler(grid);
+
+			// Histogram of Percolation without sizes no cluster has
+			int[] counts = perc.clusterSizeHistogram();
+			SortedMap<Long, Long> histogram = new TreeMap<>();
+			for (int s=1; s<counts.length; s++)
+				if (counts[s] > 0)
+					histogram.put((long) s, (long) counts[s]);
+
+			String run = "n = " + n + ", p = " + p;
+			assertEquals(perc.percolates(), labeler.percolates(), run);
+			assertEquals(perc.numberOfOpenSites(), labeler.numberOfOpenSites(), run);
+			assertEquals(perc.numberOfClusters(), labeler.numberOfClusters(), run);
+			assertEquals(perc.largestClusterSize(), labeler.largestClusterSize(), run);
+			assertEquals(histogram, labeler.clusterSizeHistogram(), run);
+			assertEquals(perc.meanClusterSize(), labeler.meanClusterSize(), 1e-9, run);
+			assertEquals(perc.weightedMeanClusterSize(), labeler.weightedMeanClusterSize(), 1e-9, run);
+		}
+	}
+}
\ No newline at end of file
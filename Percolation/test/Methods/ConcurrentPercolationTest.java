@@ -0,0 +1,199 @@
+package Methods;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks ConcurrentPercolation and ConcurrentQuickUnion against sequential Percolation and QuickUnion,
+ * opening sites and joining nodes from several threads at once. The final state does not depend on the
+ * order of opens or unions, so it must match the sequential result exactly.
+ */
+public class ConcurrentPercolationTest {
+
+	// Threads racing on one structure
+	private static final int THREADS = 4;
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setup()
+	{
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@AfterEach
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void matchesSequentialOnOneThread()
+	{
+		SplittableRandom rand = new SplittableRandom(7);
+		for (int trial=0; trial<50; trial++)
+		{
+			int n = 1 + rand.nextInt(30);
+			Percolation perc = new Percolation(n);
+			ConcurrentPercolation conc = new ConcurrentPercolation(n);
+			while (!perc.percolates())
+			{
+				int i = rand.nextInt(n) + 1;
+				int j = rand.nextInt(n) + 1;
+				assertEquals(!perc.isOpen(i, j), conc.open(i, j));
+				perc.open(i, j);
+				assertEquals(perc.percolates(), conc.percolates());
+			}
+			assertSameState(perc, conc, "n = " + n);
+		}
+	}
+
+	@Test
+	public void matchesSequentialWhenThreadsRace() throws Exception
+	{
+		SplittableRandom rand = new SplittableRandom(11);
+		for (int trial=0; trial<200; trial++)
+		{
+			// Random sites near threshold, opened by all threads at once (every site by every thread)
+			int n = 2 + rand.nextInt(60);
+			double p = 0.5 + 0.2 * rand.nextDouble();
+			int[] sites = openSites(n, p, rand);
+			ConcurrentPercolation conc = new ConcurrentPercolation(n);
+			List<int[]> orders = new ArrayList<>();
+			for (int t=0; t<THREADS; t++)
+				orders.add(shuffled(sites, rand));
+			long[] opened = race(orders, site -> conc.open((site - 1) / n + 1, (site - 1) % n + 1));
+
+			// Each site opened by exactly one thread
+			long total = 0;
+			for (long count:opened)
+				total += count;
+			assertEquals(sites.length, total);
+
+			Percolation perc = new Percolation(n);
+			perc.open(sites);
+			assertSameState(perc, conc, "n = " + n + ", p = " + p);
+		}
+	}
+
+	@Test
+	public void quickUnionMatchesSequentialWhenThreadsRace() throws Exception
+	{
+		SplittableRandom rand = new SplittableRandom(13);
+		for (int trial=0; trial<50; trial++)
+		{
+			// Random pairs split between threads
+			int nodes = 2 + rand.nextInt(5000);
+			int pairs = rand.nextInt(nodes);
+			int[] p = new int[pairs];
+			int[] q = new int[pairs];
+			QuickUnion seq = new QuickUnion(nodes);
+			for (int k=0; k<pairs; k++)
+			{
+				p[k] = rand.nextInt(nodes);
+				q[k] = rand.nextInt(nodes);
+				seq.union(p[k], q[k]);
+			}
+			ConcurrentQuickUnion conc = new ConcurrentQuickUnion(nodes);
+			List<int[]> orders = new ArrayList<>();
+			for (int t=0; t<THREADS; t++)
+			{
+				int[] part = new int[(pairs - t + THREADS - 1) / THREADS];
+				for (int k=t, c=0; k<pairs; k+=THREADS, c++)
+					part[c] = k;
+				orders.add(part);
+			}
+			race(orders, k -> conc.union(p[k], q[k]));
+
+			// Same partition: same root exactly when sequential roots match
+			for (int a=0; a<nodes; a++)
+			{
+				int b = rand.nextInt(nodes);
+				assertEquals(seq.connected(a, b), conc.connected(a, b), "nodes " + a + ", " + b);
+				assertEquals(seq.find(a) == seq.find(b), conc.find(a) == conc.find(b), "nodes " + a + ", " + b);
+			}
+		}
+	}
+
+	/** Runs one list of items per thread, all threads released together
+	 * @param orders Items of each thread
+	 * @param action Action on one item, returning whether it changed anything
+	 * @return long[] Number of items each thread changed
+	 */
+	private long[] race(List<int[]> orders, Action action) throws Exception
+	{
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Long>> futures = new ArrayList<>();
+		for (int[] order:orders)
+			futures.add(executor.submit(() -> {
+				start.await();
+				long changed = 0;
+				for (int item:order)
+					if (action.apply(item))
+						changed++;
+				return changed;
+			}));
+		start.countDown();
+		long[] changed = new long[orders.size()];
+		for (int t=0; t<changed.length; t++)
+			changed[t] = futures.get(t).get();
+		return changed;
+	}
+
+	/**
+	 * Action on one item of a race
+	 */
+	private interface Action {
+
+		/** Applies action
+		 * @param item Item
+		 * @return boolean Whether item changed anything
+		 */
+		boolean apply(int item);
+	}
+
+	// Checks open, full and percolates of every site
+	private static void assertSameState(Percolation perc, ConcurrentPercolation conc, String run)
+	{
+		int n = perc.getGridSize();
+		assertEquals(perc.percolates(), conc.percolates(), run);
+		assertEquals(perc.numberOfOpenSites(), conc.numberOfOpenSites(), run);
+		for (int i=1; i<=n; i++)
+			for (int j=1; j<=n; j++)
+			{
+				assertEquals(perc.isOpen(i, j), conc.isOpen(i, j), run + ", site (" + i + ", " + j + ")");
+				assertEquals(perc.isFull(i, j), conc.isFull(i, j), run + ", site (" + i + ", " + j + ")");
+			}
+	}
+
+	// Site indices of n x n grid, each open with probability p
+	private static int[] openSites(int n, double p, SplittableRandom rand)
+	{
+		List<Integer> open = new ArrayList<>();
+		for (int site=1; site<=n * n; site++)
+			if (rand.nextDouble() < p)
+				open.add(site);
+		return open.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	// Copy of items in random order
+	private static int[] shuffled(int[] items, SplittableRandom rand)
+	{
+		int[] copy = items.clone();
+		for (int k=copy.length - 1; k>0; k--)
+		{
+			int swap = rand.nextInt(k + 1);
+			int temp = copy[k];
+			copy[k] = copy[swap];
+			copy[swap] = temp;
+		}
+		return copy;
+	}
+}
\ No newline at end of file
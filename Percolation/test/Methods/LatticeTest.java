@@ -0,0 +1,115 @@
+package Methods;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks Percolation on every lattice, open and periodic for n = 1 to 5, against a breadth-first search over
+ * Lattice.neighbor after every site opened, so offsets, sentinel and boundary classes stay exact,
+ * and checks Lattice.getBonds against a count of distinct neighbor pairs.
+ */
+public class LatticeTest {
+
+	@Test
+	public void percolationMatchesBreadthFirstSearch()
+	{
+		List<IntFunction<UnionFind>> unionFinds = List.of(QuickUnion::new,
+				n -> new ConfigurableQuickUnion(n, ConfigurableQuickUnion.Linking.RANK, ConfigurableQuickUnion.Compression.HALVING));
+		SplittableRandom rand = new SplittableRandom(42);
+		for (Lattice lattice:lattices())
+			for (IntFunction<UnionFind> unionFind:unionFinds)
+				for (boolean clusters:new boolean[] {false, true})
+				{
+					Percolation perc = new Percolation(lattice, rand, unionFind, clusters);
+					String run = lattice + ", clusters = " + clusters;
+					assertFalse(perc.percolates(), run);
+					while (perc.numberOfOpenSites() < lattice.getSites())
+					{
+						perc.openRandom(rand);
+						boolean[] full = search(lattice, perc);
+						boolean percolates = false;
+						for (int j=1; j<=lattice.getColumns(); j++)
+							percolates |= full[(lattice.getRows() - 1) * lattice.getColumns() + j];
+						assertEquals(percolates, perc.percolates(), run);
+						for (int site=1; site<=lattice.getSites(); site++)
+							assertEquals(full[site], perc.isFull(row(lattice, site), column(lattice, site)), run + ", site " + site);
+					}
+					assertTrue(perc.percolates(), run);
+				}
+	}
+
+	@Test
+	public void bondsAreDistinctNeighborPairs()
+	{
+		for (Lattice lattice:lattices())
+		{
+			Set<Long> pairs = new HashSet<>();
+			for (int site=1; site<=lattice.getSites(); site++)
+				for (int d=0; d<lattice.getDegree(); d++)
+				{
+					int other = lattice.neighbor(site, d);
+					if (other != site)
+						pairs.add((long) Math.min(site, other) * (lattice.getSites() + 1) + Math.max(site, other));
+				}
+			assertEquals(pairs.size(), lattice.getBonds(), lattice.toString());
+		}
+	}
+
+	// Every lattice, open and periodic, for n = 1 to 5
+	private static List<Lattice> lattices()
+	{
+		List<Lattice> lattices = new ArrayList<>();
+		for (int n=1; n<=5; n++)
+			for (boolean periodic:new boolean[] {false, true})
+			{
+				lattices.add(Lattice.square(n, periodic));
+				lattices.add(Lattice.triangular(n, periodic));
+				lattices.add(Lattice.hexagonal(n, periodic));
+				lattices.add(Lattice.cubic(n, periodic));
+			}
+		return lattices;
+	}
+
+	// Full sites: open sites reached over open neighbors from an open site in first row
+	private static boolean[] search(Lattice lattice, Percolation perc)
+	{
+		boolean[] full = new boolean[lattice.getSites() + 1];
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		for (int j=1; j<=lattice.getColumns(); j++)
+			if (perc.isOpen(1, j))
+			{
+				full[j] = true;
+				queue.add(j);
+			}
+		while (!queue.isEmpty())
+		{
+			int site = queue.poll();
+			for (int d=0; d<lattice.getDegree(); d++)
+			{
+				int other = lattice.neighbor(site, d);
+				if (!full[other] && perc.isOpen(row(lattice, other), column(lattice, other)))
+				{
+					full[other] = true;
+					queue.add(other);
+				}
+			}
+		}
+		return full;
+	}
+
+	private static int row(Lattice lattice, int site)
+	{
+		return (site - 1) / lattice.getColumns() + 1;
+	}
+
+	private static int column(Lattice lattice, int site)
+	{
+		return (site - 1) % lattice.getColumns() + 1;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+package Methods;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks off heap MappedPercolation and MappedQuickUnion against Percolation and QuickUnion on small grids,
+ * and that closing them deletes their backing files.
+ */
+public class MappedPercolationTest {
+
+	// Directory for backing files
+	@TempDir
+	Path dir;
+
+	@Test
+	public void matchesPercolation()
+	{
+		SplittableRandom rand = new SplittableRandom(42);
+		for (int n=1; n<=12; n++)
+			for (int trial=0; trial<5; trial++)
+				try (MappedPercolation mapped = new MappedPercolation(n, dir)) {
+					// Same sites opened in same order, all the way to a fully open grid
+					Percolation perc = new Percolation(n);
+					int[] order = shuffled(n * n, rand);
+					for (int site:order)
+					{
+						int i = (site - 1) / n + 1;
+						int j = (site - 1) % n + 1;
+						mapped.open(i, j);
+						perc.open(i, j);
+						String run = "n = " + n + ", trial " + trial + ", opened " + perc.numberOfOpenSites();
+						assertEquals(perc.numberOfOpenSites(), mapped.numberOfOpenSites(), run);
+						assertEquals(perc.percolates(), mapped.percolates(), run);
+						for (int a=1; a<=n; a++)
+							for (int b=1; b<=n; b++)
+							{
+								assertEquals(perc.isOpen(a, b), mapped.isOpen(a, b), run);
+								assertEquals(perc.isFull(a, b), mapped.isFull(a, b), run);
+							}
+					}
+				}
+	}
+
+	@Test
+	public void openRandomMatchesPercolation()
+	{
+		// Rejection sampling opens other sites than Percolation's closed list, so the sites it opened are replayed
+		SplittableRandom rand = new SplittableRandom(7);
+		for (int n=1; n<=20; n++)
+			try (MappedPercolation mapped = new MappedPercolation(n, dir)) {
+				while (!mapped.percolates())
+					mapped.openRandom(rand);
+				Percolation perc = new Percolation(n);
+				for (int i=1; i<=n; i++)
+					for (int j=1; j<=n; j++)
+						if (mapped.isOpen(i, j))
+							perc.open(i, j);
+				assertTrue(perc.percolates(), "n = " + n);
+				assertEquals(perc.numberOfOpenSites(), mapped.numberOfOpenSites(), "n = " + n);
+				for (int i=1; i<=n; i++)
+					for (int j=1; j<=n; j++)
+						assertEquals(perc.isFull(i, j), mapped.isFull(i, j), "n = " + n);
+			}
+	}
+
+	@Test
+	public void unionFindMatchesQuickUnion()
+	{
+		SplittableRandom rand = new SplittableRandom(3);
+		for (int n=1; n<=40; n++)
+			try (MappedQuickUnion mapped = new MappedQuickUnion(n, dir)) {
+				QuickUnion qu = new QuickUnion(n);
+				int[] tags = new int[n];
+				for (int step=0; step<2 * n; step++)
+				{
+					// Random union, and now and then a tag
+					int p = rand.nextInt(n);
+					int q = rand.nextInt(n);
+					long root = mapped.union(p, q);
+					assertEquals(root, mapped.root(p));
+					assertEquals(root, mapped.root(q));
+					qu.union(p, q);
+					if (rand.nextInt(4) == 0)
+					{
+						int tag = 1 + rand.nextInt(3);
+						mapped.tag(p, tag);
+						tags[p] |= tag;
+					}
+
+					// Connections, and tags of each cluster as all tags of its nodes
+					for (int a=0; a<n; a++)
+					{
+						int expected = 0;
+						for (int b=0; b<n; b++)
+						{
+							assertEquals(qu.connected(a, b), mapped.connected(a, b), "n = " + n);
+							if (qu.connected(a, b))
+								expected |= tags[b];
+						}
+						assertEquals(expected, mapped.tags(a), "n = " + n);
+					}
+				}
+			}
+	}
+
+	@Test
+	public void closeDeletesBackingFiles() throws IOException
+	{
+		MappedPercolation mapped = new MappedPercolation(100, dir);
+		mapped.open(1, 1);
+		assertTrue(count(dir) > 0);
+		mapped.close();
+		assertEquals(0, count(dir));
+	}
+
+	private static long count(Path dir) throws IOException
+	{
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.count();
+		}
+	}
+
+	// Sites 1 to count in random order
+	private static int[] shuffled(int count, SplittableRandom rand)
+	{
+		int[] order = new int[count];
+		for (int k=0; k<count; k++)
+			order[k] = k + 1;
+		for (int k=count-1; k>0; k--)
+		{
+			int swap = rand.nextInt(k + 1);
+			int temp = order[k];
+			order[k] = order[swap];
+			order[swap] = temp;
+		}
+		return order;
+	}
+}
\ No newline at end of file
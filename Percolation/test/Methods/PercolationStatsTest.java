@@ -0,0 +1,182 @@
+package Methods;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks PercolationStats runs: an interrupted run fails instead of returning fewer trials than asked,
+ * a checkpointed run resumed partway (with any number of workers) ends exactly like an uninterrupted one,
+ * and an adaptive run stops on its target, its trial cap or its time budget.
+ */
+public class PercolationStatsTest {
+
+	// Pool shared by the workers of a test
+	private ExecutorService executor;
+
+	// Directory for checkpoint files
+	@TempDir
+	Path dir;
+
+	@BeforeEach
+	public void setup()
+	{
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterEach
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void interruptedRunFails()
+	{
+		// Worker running trial 5 is interrupted as if cancelled, and stops after it
+		assertThrows(IllegalStateException.class, () -> new PercolationStats(10, 0, 40, 1, executor, 4, (trial, openSites, threshold) -> {
+			if (trial == 5)
+				Thread.currentThread().interrupt();
+		}));
+
+		// Pool threads are still usable, and a full run counts every trial
+		assertEquals(40, new PercolationStats(10, 0, 40, 1, executor, 4, null).trials());
+	}
+
+	@Test
+	public void resumedCheckpointMatchesUninterruptedRun()
+	{
+		int n = 12;
+		int trials = 50;
+		long seed = 7;
+		PercolationStats whole = new PercolationStats(n, trials, seed, 2, dir.resolve("whole"), 1000);
+
+		// Thresholds of every trial, in trial order
+		double[] thresholds = new double[trials];
+		new PercolationStats(n, 0, trials, seed, executor, 4, (trial, openSites, threshold) -> thresholds[(int) trial] = threshold);
+
+		for (int done:new int[] {0, 1, 17, trials - 1, trials})
+			for (int workers:new int[] {1, 3})
+			{
+				// Checkpoint of a run stopped after done trials
+				Path file = dir.resolve("part" + done + "-" + workers);
+				StatsCheckpoint state = new StatsCheckpoint(n, trials, seed);
+				for (int k=0; k<done; k++)
+					state.stats.add(thresholds[k]);
+				state.nextTrial = done;
+				state.write(file);
+
+				PercolationStats resumed = new PercolationStats(n, trials, seed, workers, file, 1000);
+				String run = "done = " + done + ", workers = " + workers;
+				assertEquals(trials, resumed.trials(), run);
+				assertEquals(whole.mean(), resumed.mean(), run);
+				assertEquals(whole.stddev(), resumed.stddev(), run);
+				assertEquals(trials, StatsCheckpoint.read(file).nextTrial, run);
+			}
+	}
+
+	@Test
+	public void checkpointOfOtherRunIsRejected()
+	{
+		Path file = dir.resolve("run");
+		new PercolationStats(8, 10, 3, 2, file, 1000);
+		assertThrows(IllegalArgumentException.class, () -> new PercolationStats(9, 10, 3, 2, file, 1000));
+		assertThrows(IllegalArgumentException.class, () -> new PercolationStats(8, 11, 3, 2, file, 1000));
+		assertThrows(IllegalArgumentException.class, () -> new PercolationStats(8, 10, 4, 2, file, 1000));
+		assertEquals(10, new PercolationStats(8, 10, 3, 1, file, 1000).trials());
+	}
+
+	@Test
+	public void damagedCheckpointFails() throws IOException
+	{
+		Path file = dir.resolve("run");
+		new PercolationStats(8, 10, 3, 2, file, 1000);
+		byte[] bytes = Files.readAllBytes(file);
+
+		// Every truncation, then bytes that are not a checkpoint
+		for (int length=0; length<bytes.length; length++)
+		{
+			Files.write(file, Arrays.copyOf(bytes, length));
+			assertThrows(UncheckedIOException.class, () -> new PercolationStats(8, 10, 3, 2, file, 1000), "length = " + length);
+		}
+		Files.write(file, "not a checkpoint file".getBytes());
+		assertThrows(UncheckedIOException.class, () -> new PercolationStats(8, 10, 3, 2, file, 1000));
+
+		// Progress that does not match its statistics
+		StatsCheckpoint state = new StatsCheckpoint(8, 10, 3);
+		state.nextTrial = 5;
+		state.write(file);
+		assertThrows(UncheckedIOException.class, () -> new PercolationStats(8, 10, 3, 2, file, 1000));
+	}
+
+	@Test
+	public void adaptiveRunStopsOnHalfWidth()
+	{
+		PercolationStats stats = new PercolationStats(10, 100000, 0.01, 0, 0, 1, executor, 4, null);
+		assertTrue(stats.isTargetMet());
+		assertTrue(stats.trials() >= 30 && stats.trials() <= 100000);
+		assertTrue(stats.getStats().halfWidth() <= 0.01);
+		assertEquals(stats.getStats().halfWidth(), (stats.confidenceHi() - stats.confidenceLo()) / 2, 1e-12);
+	}
+
+	@Test
+	public void adaptiveRunStopsOnRelativeError()
+	{
+		PercolationStats stats = new PercolationStats(10, 100000, 0, 0.02, 0, 1, executor, 4, null);
+		assertTrue(stats.isTargetMet());
+		assertTrue(stats.trials() >= 30 && stats.trials() <= 100000);
+		assertTrue(stats.getStats().halfWidth() <= 0.02 * stats.mean());
+	}
+
+	@Test
+	public void adaptiveRunStopsOnMaxTrials()
+	{
+		for (int maxTrials:new int[] {1, 29, 30, 200})
+		{
+			PercolationStats stats = new PercolationStats(10, maxTrials, 1e-6, 0, 0, 1, executor, 4, null);
+			assertFalse(stats.isTargetMet(), "maxTrials = " + maxTrials);
+			assertEquals(maxTrials, stats.trials(), "maxTrials = " + maxTrials);
+		}
+	}
+
+	@Test
+	public void adaptiveRunStopsOnBudget()
+	{
+		// Target out of reach, so only the budget ends the run, at most about one block late
+		long budget = 500;
+		long start = System.nanoTime();
+		PercolationStats stats = new PercolationStats(30, Integer.MAX_VALUE, 1e-9, 0, budget, 1, executor, 4, null);
+		long elapsed = (System.nanoTime() - start) / 1000000;
+		assertFalse(stats.isTargetMet());
+		assertTrue(stats.trials() >= 30 && stats.trials() < Integer.MAX_VALUE);
+		assertTrue(elapsed < 3 * budget, "elapsed = " + elapsed + " ms");
+	}
+
+	@Test
+	public void relativeTargetNeverMetAtMeanZero()
+	{
+		RunningStats stats = new RunningStats();
+		for (int k=0; k<1000; k++)
+			stats.add(k % 2 == 0 ? 1: -1);
+		assertEquals(0, stats.mean(), 1e-12);
+		assertFalse(PercolationStats.targetMet(stats, 0, 0.5));
+		assertFalse(PercolationStats.targetMet(stats, 1, 0.5));
+		assertTrue(PercolationStats.targetMet(stats, 1, 0));
+
+		// Fewer than 30 trials never meet a target
+		RunningStats few = new RunningStats();
+		for (int k=0; k<29; k++)
+			few.add(0.5);
+		assertFalse(PercolationStats.targetMet(few, 1, 1));
+		few.add(0.5);
+		assertTrue(PercolationStats.targetMet(few, 1, 1));
+	}
+}
\ No newline at end of file
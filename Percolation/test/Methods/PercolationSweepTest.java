@@ -0,0 +1,55 @@
+package Methods;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks PercolationSweep's P(n, p), found from thresholds alone, against direct simulation of grids
+ * opened with fixed probability p, and its exact edges and monotonicity in p.
+ */
+public class PercolationSweepTest {
+
+	@Test
+	public void matchesFixedProbabilitySimulation()
+	{
+		double[] probabilities = {0.3, 0.4, 0.5, 0.55, 0.6, 0.65, 0.7, 0.8};
+		PercolationSweep sweep = new PercolationSweep(new int[] {8}, probabilities, 4000, 1, 2);
+		SplittableRandom rand = new SplittableRandom(2);
+		for (int q=0; q<probabilities.length; q++)
+		{
+			// Fraction of grids open with probability p that percolate
+			int trials = 4000;
+			int percolated = 0;
+			for (int k=0; k<trials; k++)
+				if (new ClusterLabeler(BitGrid.random(8, probabilities[q], rand)).percolates())
+					percolated++;
+			String run = "p = " + probabilities[q];
+			assertEquals(percolated / (double) trials, sweep.percolationProbability(0, probabilities[q]), 0.05, run);
+			assertEquals(sweep.percolationProbability(0, probabilities[q]), sweep.getPercolationProbability(0, q), 1e-12, run);
+		}
+	}
+
+	@Test
+	public void edgesAndMonotone()
+	{
+		PercolationSweep sweep = new PercolationSweep(new int[] {1, 2, 5, 16}, new double[0], 500, 3, 2);
+		for (int s=0; s<sweep.getSizes().length; s++)
+		{
+			String run = "n = " + sweep.getSizes()[s];
+			assertEquals(0, sweep.percolationProbability(s, 0), run);
+			assertEquals(1, sweep.percolationProbability(s, 1), run);
+			double last = 0;
+			for (int k=0; k<=1000; k++)
+			{
+				double p = k / 1000.0;
+				double prob = sweep.percolationProbability(s, p);
+				assertTrue(prob >= last - 1e-12 && prob <= 1 + 1e-12, run + ", p = " + p);
+				last = prob;
+			}
+		}
+
+		// Single site percolates exactly when open
+		for (int k=0; k<=100; k++)
+			assertEquals(k / 100.0, sweep.percolationProbability(0, k / 100.0), 1e-12);
+	}
+}
\ No newline at end of file
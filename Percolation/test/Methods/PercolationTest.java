@@ -0,0 +1,136 @@
+package Methods;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks Percolation's incremental cluster statistics against clusters recounted by breadth-first search
+ * after every site opened, on every lattice for n = 1 to 4, and that reset() clears them.
+ */
+public class PercolationTest {
+
+	@Test
+	public void clustersMatchBreadthFirstSearch()
+	{
+		List<IntFunction<UnionFind>> unionFinds = List.of(QuickUnion::new,
+				n -> new ConfigurableQuickUnion(n, ConfigurableQuickUnion.Linking.SIZE, ConfigurableQuickUnion.Compression.FULL));
+		SplittableRandom rand = new SplittableRandom(42);
+		for (Lattice lattice:lattices())
+			for (IntFunction<UnionFind> unionFind:unionFinds)
+			{
+				Percolation perc = new Percolation(lattice, rand, unionFind, true);
+				for (int round=0; round<2; round++)
+				{
+					// Fresh grid, then the same grid again after reset
+					String run = lattice + ", round " + round;
+					check(lattice, perc, run);
+					while (perc.numberOfOpenSites() < lattice.getSites())
+					{
+						perc.openRandom(rand);
+						check(lattice, perc, run);
+					}
+					perc.reset();
+					assertEquals(0, perc.numberOfOpenSites(), run);
+					assertEquals(0, perc.numberOfClusters(), run);
+					assertEquals(0, perc.largestClusterSize(), run);
+					assertArrayEquals(new int[1], perc.clusterSizeHistogram(), run);
+					assertEquals(0, perc.weightedMeanClusterSize(), run);
+					assertFalse(perc.percolates(), run);
+				}
+			}
+	}
+
+	@Test
+	public void untrackedClustersFail()
+	{
+		Percolation perc = new Percolation(4);
+		perc.open(1, 1);
+		assertFalse(perc.isTrackingClusters());
+		assertThrows(IllegalStateException.class, () -> perc.numberOfClusters());
+		assertThrows(IllegalStateException.class, () -> perc.clusterSizeHistogram());
+		assertThrows(IllegalStateException.class, () -> perc.clusterSize(1, 1));
+		assertTrue(perc.isFull(1, 1));
+	}
+
+	// Recounts clusters of open sites by breadth-first search and compares with perc
+	private static void check(Lattice lattice, Percolation perc, String run)
+	{
+		int sites = lattice.getSites();
+		int[] label = new int[sites + 1];
+		List<Integer> sizes = new ArrayList<>();
+		sizes.add(0);
+		boolean[] topLabel = new boolean[sites + 1];
+		int largest = 0;
+		long squares = 0;
+		for (int site=1; site<=sites; site++)
+		{
+			if (label[site] != 0 || !open(lattice, perc, site))
+				continue;
+
+			// Label cluster of site
+			int id = sizes.size();
+			int size = 0;
+			ArrayDeque<Integer> queue = new ArrayDeque<>();
+			label[site] = id;
+			queue.add(site);
+			while (!queue.isEmpty())
+			{
+				int next = queue.poll();
+				size++;
+				topLabel[id] |= next <= lattice.getColumns();
+				for (int d=0; d<lattice.getDegree(); d++)
+				{
+					int other = lattice.neighbor(next, d);
+					if (label[other] == 0 && open(lattice, perc, other))
+					{
+						label[other] = id;
+						queue.add(other);
+					}
+				}
+			}
+			sizes.add(size);
+			largest = Math.max(largest, size);
+			squares += (long) size * size;
+		}
+
+		int[] histogram = new int[largest + 1];
+		for (int id=1; id<sizes.size(); id++)
+			histogram[sizes.get(id)]++;
+		assertEquals(sizes.size() - 1, perc.numberOfClusters(), run);
+		assertEquals(largest, perc.largestClusterSize(), run);
+		assertArrayEquals(histogram, perc.clusterSizeHistogram(), run);
+		int open = perc.numberOfOpenSites();
+		assertEquals(open == 0 ? 0: squares / (double) open, perc.weightedMeanClusterSize(), 1e-9, run);
+		for (int site=1; site<=sites; site++)
+		{
+			int i = (site - 1) / lattice.getColumns() + 1;
+			int j = (site - 1) % lattice.getColumns() + 1;
+			assertEquals(label[site] == 0 ? 0: sizes.get(label[site]), perc.clusterSize(i, j), run + ", site " + site);
+			assertEquals(label[site] != 0 && topLabel[label[site]], perc.isFull(i, j), run + ", site " + site);
+		}
+	}
+
+	private static boolean open(Lattice lattice, Percolation perc, int site)
+	{
+		return perc.isOpen((site - 1) / lattice.getColumns() + 1, (site - 1) % lattice.getColumns() + 1);
+	}
+
+	// Every lattice, open and periodic, for n = 1 to 4
+	private static List<Lattice> lattices()
+	{
+		List<Lattice> lattices = new ArrayList<>();
+		for (int n=1; n<=4; n++)
+			for (boolean periodic:new boolean[] {false, true})
+			{
+				lattices.add(Lattice.square(n, periodic));
+				lattices.add(Lattice.triangular(n, periodic));
+				lattices.add(Lattice.hexagonal(n, periodic));
+				lattices.add(Lattice.cubic(n, periodic));
+			}
+		return lattices;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,134 @@
+package Methods;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks RunningStats: merging any split of a stream equals one sequential pass, statistics survive
+ * a write and read, and merging with empty statistics changes nothing.
+ */
+public class RunningStatsTest {
+
+	@Test
+	public void mergedSplitsMatchSequentialPass()
+	{
+		SplittableRandom rand = new SplittableRandom(42);
+		for (int trial=0; trial<500; trial++)
+		{
+			// Thresholds near 0.59, or spread evenly over 0 to 1
+			int count = 1 + rand.nextInt(2000);
+			boolean narrow = trial % 2 == 0;
+			double[] values = new double[count];
+			RunningStats sequential = new RunningStats();
+			for (int k=0; k<count; k++)
+			{
+				values[k] = (narrow ? 0.59 + 0.05 * rand.nextGaussian(): rand.nextDouble());
+				sequential.add(values[k]);
+			}
+
+			// Split at random points into parts, then merge parts in a random order
+			List<RunningStats> parts = new ArrayList<>();
+			RunningStats part = new RunningStats();
+			for (int k=0; k<count; k++)
+			{
+				part.add(values[k]);
+				if (rand.nextInt(50) == 0)
+				{
+					parts.add(part);
+					part = new RunningStats();
+				}
+			}
+			parts.add(part);
+			while (parts.size() > 1)
+			{
+				RunningStats a = parts.remove(rand.nextInt(parts.size()));
+				parts.get(rand.nextInt(parts.size())).merge(a);
+			}
+			RunningStats merged = parts.get(0);
+
+			// Two-pass reference
+			double sum = 0;
+			for (double x:values)
+				sum += x;
+			double mean = sum / count;
+			double squares = 0;
+			for (double x:values)
+				squares += (x - mean) * (x - mean);
+			double stddev = Math.sqrt(squares / count);
+
+			String run = "count = " + count + ", narrow = " + narrow;
+			assertEquals(count, merged.count(), run);
+			assertEquals(sequential.mean(), merged.mean(), 1e-12, run);
+			assertEquals(sequential.stddev(), merged.stddev(), 1e-12, run);
+			assertEquals(mean, sequential.mean(), 1e-12, run);
+			assertEquals(stddev, sequential.stddev(), 1e-12, run);
+		}
+	}
+
+	@Test
+	public void writeAndReadRoundTrip() throws IOException
+	{
+		SplittableRandom rand = new SplittableRandom(7);
+		RunningStats stats = new RunningStats();
+		for (int k=0; k<=100; k++)
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			stats.write(new DataOutputStream(bytes));
+			RunningStats read = RunningStats.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+			assertEquals(stats.count(), read.count());
+			assertEquals(stats.mean(), read.mean());
+			assertEquals(stats.stddev(), read.stddev());
+			stats.add(rand.nextDouble());
+		}
+
+		// Negative count is not statistics
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeLong(-1);
+		out.writeDouble(0);
+		out.writeDouble(0);
+		assertThrows(IOException.class, () -> RunningStats.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+	}
+
+	@Test
+	public void mergeWithEmpty()
+	{
+		RunningStats empty = new RunningStats();
+		assertEquals(0, empty.count());
+		assertTrue(Double.isNaN(empty.mean()));
+		assertTrue(Double.isNaN(empty.stddev()));
+
+		RunningStats stats = new RunningStats();
+		for (double x:new double[] {0.5, 0.6, 0.65, 0.7})
+			stats.add(x);
+		double mean = stats.mean();
+		double stddev = stats.stddev();
+
+		// Empty into stats, stats into empty, and empty into empty
+		stats.merge(new RunningStats());
+		assertEquals(4, stats.count());
+		assertEquals(mean, stats.mean());
+		assertEquals(stddev, stats.stddev());
+		empty.merge(stats);
+		assertEquals(4, empty.count());
+		assertEquals(mean, empty.mean());
+		assertEquals(stddev, empty.stddev());
+		RunningStats none = new RunningStats();
+		none.merge(new RunningStats());
+		assertEquals(0, none.count());
+		assertTrue(Double.isNaN(none.mean()));
+
+		// Copy is independent of original
+		RunningStats copy = stats.copy();
+		copy.add(1);
+		assertEquals(4, stats.count());
+		assertEquals(5, copy.count());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package Methods;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks StripPercolation against sequential Percolation and ClusterLabeler on random grids,
+ * for every number of strips from 1 to 9, so the merge along strip seams stays exact.
+ */
+public class StripPercolationTest {
+
+	// Pool shared by all strips of a test
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setup()
+	{
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterEach
+	public void shutdown()
+	{
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void matchesSequentialOnRandomGrids()
+	{
+		SplittableRandom rand = new SplittableRandom(42);
+		for (int trial=0; trial<2000; trial++)
+		{
+			// Grids near threshold, where seams decide most often
+			int n = 1 + rand.nextInt(40);
+			double p = 0.45 + 0.3 * rand.nextDouble();
+			BitGrid grid = BitGrid.random(n, p, rand);
+			Percolation perc = new Percolation(n);
+			for (int i=1; i<=n; i++)
+				for (int j=1; j<=n; j++)
+					if (grid.get(i - 1, j - 1))
+						perc.open(i, j);
+			ClusterLabeler labeler = new ClusterLabeler(grid);
+
+			for (int strips=1; strips<=9; strips++)
+			{
+				StripPercolation strip = new StripPercolation(grid, executor, strips);
+				String run = "n = " + n + ", p = " + p + ", strips = " + strips;
+				assertEquals(perc.percolates(), strip.percolates(), run);
+				assertEquals(labeler.percolates(), strip.percolates(), run);
+				assertEquals(perc.numberOfOpenSites(), strip.numberOfOpenSites(), run);
+				assertEquals(Math.min(strips, n), strip.getStrips(), run);
+			}
+		}
+	}
+
+	@Test
+	public void snakeCrossesEverySeam()
+	{
+		// Single path winding left and right through every row, only connected across seams at alternating ends
+		int n = 31;
+		BitGrid grid = new BitGrid(n);
+		for (int r=0; r<n; r++)
+			if (r % 2 == 0)
+				for (int c=0; c<n; c++)
+					grid.set((long) r * n + c);
+			else
+				grid.set((long) r * n + (r % 4 == 1 ? n - 1: 0));
+		for (int strips=1; strips<=n; strips++)
+			assertTrue(new StripPercolation(grid, executor, strips).percolates(), "strips = " + strips);
+
+		// Cut one link and nothing percolates
+		grid.clear((long) 15 * n + (15 % 4 == 1 ? n - 1: 0));
+		for (int strips=1; strips<=n; strips++)
+			assertFalse(new StripPercolation(grid, executor, strips).percolates(), "strips = " + strips);
+	}
+
+	@Test
+	public void rejectsBadArguments()
+	{
+		BitGrid grid = new BitGrid(4);
+		assertThrows(IllegalArgumentException.class, () -> new StripPercolation(grid, executor, 0));
+		assertThrows(IllegalArgumentException.class, () -> new StripPercolation(grid, 0));
+		assertThrows(IllegalArgumentException.class, () -> new StripPercolation(new BitGrid(4, 5), executor, 2));
+	}
+}
\ No newline at end of file
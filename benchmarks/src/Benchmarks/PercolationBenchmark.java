@@ -0,0 +1,46 @@
+package Benchmarks;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import Methods.Percolation;
+
+/**
+ * Measures latency of a single percolation trial (open random sites until system percolates)
+ * across grid sizes, on a new grid and on a reused grid that is reset between trials.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g", "-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class PercolationBenchmark {
+
+	// Size of n x n grid
+	@Param({"64", "256", "1024", "4096"})
+	public int n;
+
+	// Random stream shared by all trials, and grid reused by singleTrialReset
+	private SplittableRandom rand;
+	private Percolation perc;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		rand = new SplittableRandom(42);
+		perc = new Percolation(n, rand);
+	}
+
+	@Benchmark
+	public int singleTrial()
+	{
+		return new Percolation(n, rand).runToPercolation();
+	}
+
+	@Benchmark
+	public int singleTrialReset()
+	{
+		perc.reset();
+		return perc.runToPercolation(rand);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package Benchmarks;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import Methods.PercolationStats;
+
+/**
+ * Measures throughput of multi-trial PercolationStats runs for different worker counts.
+ * Score is in runs per second, multiply by trials for trials per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class PercolationStatsBenchmark {
+
+	// Size of n x n grid
+	@Param({"64", "256"})
+	public int n;
+
+	// Number of trials per run
+	@Param({"200"})
+	public int trials;
+
+	// Number of worker threads
+	@Param({"1", "4", "16"})
+	public int workers;
+
+	@Benchmark
+	public double run()
+	{
+		return new PercolationStats(n, trials, 42, workers).mean();
+	}
+}
\ No newline at end of file
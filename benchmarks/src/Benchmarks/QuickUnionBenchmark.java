@@ -0,0 +1,85 @@
+package Benchmarks;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import Methods.QuickUnion;
+
+/**
+ * Measures union and connected throughput of QuickUnion over random node pairs.
+ * Every union call starts from a reset quick union, so each union joins real trees instead of
+ * finding both nodes already connected.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuickUnionBenchmark {
+
+	// Number of nodes in quick union
+	@Param({"65536", "1048576"})
+	public int nodes;
+
+	// Number of operations per benchmark invocation
+	private static final int OPS = 4096;
+
+	// Random node pairs and structures they are applied to
+	private int[] p;
+	private int[] q;
+	private int[] unionP;
+	private int[] unionQ;
+	private QuickUnion fresh;
+	private QuickUnion joined;
+
+	@Setup(Level.Trial)
+	public void setupPairs()
+	{
+		SplittableRandom rand = new SplittableRandom(42);
+		p = new int[OPS];
+		q = new int[OPS];
+		for (int k=0; k<OPS; k++)
+		{
+			p[k] = rand.nextInt(nodes);
+			q[k] = rand.nextInt(nodes);
+		}
+
+		// Half of all nodes joined at random, so finds walk real trees
+		joined = new QuickUnion(nodes);
+		for (int k=0; k<nodes / 2; k++)
+			joined.union(rand.nextInt(nodes), rand.nextInt(nodes));
+
+		// One random pair per node for union batches
+		fresh = new QuickUnion(nodes);
+		unionP = new int[nodes];
+		unionQ = new int[nodes];
+		for (int k=0; k<nodes; k++)
+		{
+			unionP[k] = rand.nextInt(nodes);
+			unionQ[k] = rand.nextInt(nodes);
+		}
+	}
+
+	// Time to reset quick union and apply one union per node (reset is a single pass over the arrays)
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public QuickUnion union()
+	{
+		fresh.reset();
+		for (int k=0; k<nodes; k++)
+			fresh.union(unionP[k], unionQ[k]);
+		return fresh;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public int connected()
+	{
+		int count = 0;
+		for (int k=0; k<OPS; k++)
+			if (joined.connected(p[k], q[k]))
+				count++;
+		return count;
+	}
+}
\ No newline at end of file
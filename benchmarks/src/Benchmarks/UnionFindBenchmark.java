@@ -0,0 +1,76 @@
+package Benchmarks;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import Methods.ConfigurableQuickUnion;
+import Methods.ConfigurableQuickUnion.Compression;
+import Methods.ConfigurableQuickUnion.Linking;
+import Methods.Lattice;
+import Methods.Percolation;
+
+/**
+ * Measures a single percolation trial with each linking rule and path compression of ConfigurableQuickUnion.
+ * Also reports finds and nodes visited per trial as secondary results (finds, pathLength).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class UnionFindBenchmark {
+
+	// Size of n x n grid
+	@Param({"256", "1024"})
+	public int n;
+
+	// Variant of union find
+	@Param({"RANK", "SIZE", "INDEX"})
+	public Linking linking;
+
+	@Param({"FULL", "HALVING", "SPLITTING"})
+	public Compression compression;
+
+	// Random stream shared by all trials, grid reused by all trials, and its union finds
+	private SplittableRandom rand;
+	private Percolation perc;
+	private List<ConfigurableQuickUnion> unionFinds;
+
+	/**
+	 * Finds and nodes visited per trial, summed over both union finds of the grid
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Counters {
+		public long finds;
+		public long pathLength;
+	}
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		rand = new SplittableRandom(42);
+		unionFinds = new ArrayList<>();
+		perc = new Percolation(Lattice.square(n), rand, nodes -> {
+			ConfigurableQuickUnion uf = new ConfigurableQuickUnion(nodes, linking, compression, true);
+			unionFinds.add(uf);
+			return uf;
+		});
+	}
+
+	@Benchmark
+	public int singleTrial(Counters counters)
+	{
+		perc.reset();
+		int open = perc.runToPercolation(rand);
+		for (ConfigurableQuickUnion uf:unionFinds)
+		{
+			counters.finds += uf.getFinds();
+			counters.pathLength += uf.getPathLength();
+			uf.resetCounters();
+		}
+		return open;
+	}
+}
\ No newline at end of file